@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code new byte[size]} and {@code new long[size / 8]} cost, ie what the {@link ArrayFillBenchmark} {@code init}
+ * allocation hides: the array zeroing plus the allocation path, against zeroing a reused array of the same size.
+ * <ul>
+ * <li>the smallest sizes are bump-the-pointer allocations in the thread TLAB</li>
+ * <li>the bigger they get, the more often the TLAB needs a refill (or they are allocated out of it)</li>
+ * <li>from 512 KB they are humongous: the G1 region size is fixed to 1 MB, as in {@link BufferAllocationBenchmark}</li>
+ * </ul>
+ * The heap size is fixed and the {@code PreTouch} variants only add -XX:+AlwaysPreTouch, hence the page faults of the
+ * first touch of the heap are paid at startup instead of by the first allocations.
+ * <p>
+ * NOTE: it runs with {@link GCProfiler} too, for the allocation rate and the GC count.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC", "-XX:G1HeapRegionSize=1m"})
+public class ArrayAllocationBenchmark {
+
+    //the humongous threshold is 512 KB
+    @Param({"16", "64", "256", "1024", "4096", "32768", "262144", "524288", "1048576", "4194304", "16777216"})
+    private int size;
+    private byte[] bytes;
+    private long[] longBytes;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        longBytes = new long[size / Long.BYTES];
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] allocateBytes(BytesCounter allocated) {
+        final byte[] bytes = new byte[size];
+        allocated.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    @Fork(jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC", "-XX:G1HeapRegionSize=1m", "-XX:+AlwaysPreTouch"})
+    public byte[] allocateBytesPreTouch(BytesCounter allocated) {
+        final byte[] bytes = new byte[size];
+        allocated.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] zeroBytes(BytesCounter allocated) {
+        //the zeroing alone, without the allocation path and the garbage
+        Arrays.fill(bytes, (byte) 0);
+        allocated.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] allocateLongs(BytesCounter allocated) {
+        final long[] longBytes = new long[size / Long.BYTES];
+        allocated.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    @Fork(jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:+UseG1GC", "-XX:G1HeapRegionSize=1m", "-XX:+AlwaysPreTouch"})
+    public long[] allocateLongsPreTouch(BytesCounter allocated) {
+        final long[] longBytes = new long[size / Long.BYTES];
+        allocated.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] zeroLongs(BytesCounter allocated) {
+        Arrays.fill(longBytes, 0);
+        allocated.bytes += size;
+        return longBytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ArrayAllocationBenchmark.class, GCProfiler.class);
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * The bulk copy counterpart of {@link ArrayFillBenchmark}, on the same size grid.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ArrayCopyBenchmark {
+
+    //how far the overlapping in-place moves shift the content
+    private static final int MOVE_DISTANCE = Long.BYTES;
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    private byte[] src;
+    private byte[] dst;
+    private long srcAddress;
+    private long dstAddress;
+
+    @Setup
+    public void init() {
+        src = new byte[size];
+        dst = new byte[size];
+        Arrays.fill(src, (byte) 1);
+        srcAddress = UNSAFE.allocateMemory(size);
+        dstAddress = UNSAFE.allocateMemory(size);
+        UNSAFE.setMemory(srcAddress, size, (byte) 1);
+    }
+
+    @TearDown
+    public void release() {
+        UNSAFE.freeMemory(srcAddress);
+        UNSAFE.freeMemory(dstAddress);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] arraycopy(BytesCounter copied) {
+        //intrinsified into the StubRoutines::jbyte_disjoint_arraycopy stub
+        System.arraycopy(src, 0, dst, 0, size);
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] copyOf(BytesCounter copied) {
+        //the allocation is part of the cost, but C2 can skip zeroing the new array: it will be fully overwritten
+        final byte[] copy = Arrays.copyOf(src, size);
+        copied.bytes += size;
+        return copy;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] heapToHeap(BytesCounter copied) {
+        //no bounds checks: C2 intrinsifies it into a call to the StubRoutines::unsafe_arraycopy stub
+        UNSAFE.copyMemory(src, Unsafe.ARRAY_BYTE_BASE_OFFSET, dst, Unsafe.ARRAY_BYTE_BASE_OFFSET, size);
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long heapToOffHeap(BytesCounter copied) {
+        UNSAFE.copyMemory(src, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, dstAddress, size);
+        copied.bytes += size;
+        return dstAddress;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapToOffHeap(BytesCounter copied) {
+        UNSAFE.copyMemory(srcAddress, dstAddress, size);
+        copied.bytes += size;
+        return dstAddress;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolled(BytesCounter copied) {
+        //the ArrayFillBenchmark::handrolled shape with a load per store: no stub call, just what C2 loop opts can do
+        for (int i = 0; i < size; i++) {
+            dst[i] = src[i];
+        }
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledReverse(BytesCounter copied) {
+        for (int i = size - 1; i >= 0; i--) {
+            dst[i] = src[i];
+        }
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] moveForward(BytesCounter copied) {
+        //overlapping regions with dst after src: it must copy backward, as memmove does
+        final int length = size - MOVE_DISTANCE;
+        System.arraycopy(src, 0, src, MOVE_DISTANCE, length);
+        copied.bytes += length;
+        return src;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] moveBackward(BytesCounter copied) {
+        //overlapping regions with dst before src: a plain forward copy is still correct
+        final int length = size - MOVE_DISTANCE;
+        System.arraycopy(src, MOVE_DISTANCE, src, 0, length);
+        copied.bytes += length;
+        return src;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ArrayCopyBenchmark.class);
+    }
+
+}
@@ -19,13 +19,17 @@ package red.hat.puzzles;
 
 import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.profile.LinuxPerfAsmProfiler;
+import org.openjdk.jmh.profile.Profiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 import sun.misc.Unsafe;
 
 import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedExceptionAction;
 import java.util.Arrays;
@@ -44,6 +48,7 @@ import java.util.concurrent.TimeUnit;
 @OutputTimeUnit(TimeUnit.SECONDS)
 @Warmup(iterations = 5, time = 1)
 @Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
 public class ArrayFillBenchmark {
 
     public static final Unsafe UNSAFE;
@@ -68,80 +73,201 @@ public class ArrayFillBenchmark {
         UNSAFE = unsafe;
     }
 
+    private static final long BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(bufferAddressField());
+
+    private static Field bufferAddressField() {
+        try {
+            return Buffer.class.getDeclaredField("address");
+        } catch (final NoSuchFieldException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /**
+     * @return the native address of a direct (or mapped) {@link Buffer}
+     */
+    public static long address(Buffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("the buffer isn't direct");
+        }
+        return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+    }
+
+    //from L1 up to DRAM: 16 B, 256 B, 4 KB, 32 KB, 256 KB, 2 MB, 16 MB, 64 MB, 256 MB
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
     private byte[] bytes;
     private long[] longBytes;
-    private int size;
+    private ByteBuffer directBytes;
+    private long address;
     private byte b;
+    private long wideB;
 
     @Setup
     public void init() {
-        size = 32 * 1024;
         bytes = new byte[size];
         longBytes = new long[size / Long.BYTES];
+        directBytes = ByteBuffer.allocateDirect(size);
+        address = UNSAFE.allocateMemory(size);
         b = 1;
+        //b broadcasted on each byte of a long
+        wideB = (b & 0xFFL) * 0x0101010101010101L;
+        //bytes is the source of the direct bulk put too: the fills won't change its content
+        Arrays.fill(bytes, b);
+    }
+
+    @TearDown
+    public void release() {
+        UNSAFE.freeMemory(address);
     }
 
     @Benchmark
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
-    public byte[] fill() {
+    public byte[] fill(BytesCounter filled) {
         //Arrays::fill replacement rules:
         //http://hg.openjdk.java.net/jdk8/jdk8/hotspot/file/61746b5f0ed3/src/cpu/x86/vm/macroAssembler_x86.cpp#l6085
         //vmovdqu
         Arrays.fill(bytes, b);
+        filled.bytes += size;
         return bytes;
     }
 
     @Benchmark
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
-    public long[] fillLong() {
+    public long[] fillLong(BytesCounter filled) {
         //Superword Level Parallelism (SLP):
         //http://hg.openjdk.java.net/jdk8/jdk8/hotspot/file/55fb97c4c58d/src/share/vm/opto/superword.cpp
         //play with: -XX:-UseSuperWord -XX:-OptimizeFill
         //TLDR: Loop unrolling -> loop level parallelism into ILP = SuperWord Optimization -> vector parallelism into SLP
         Arrays.fill(longBytes, b);
+        filled.bytes += size;
         return longBytes;
     }
 
     @Benchmark
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
-    public long[] handrolledReverse() {
+    public long[] handrolledReverse(BytesCounter filled) {
         //JVM can't recognize the IR pattern: it is very unlikely will be able to optimize it
         for (int i = bytes.length - 1; i >= 0; i--) {
             bytes[i] = b;
         }
+        filled.bytes += size;
         return longBytes;
     }
 
 
     @Benchmark
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
-    public byte[] handrolled() {
+    public byte[] handrolled(BytesCounter filled) {
         //goooood boy this JVM
         for (int i = 0; i < bytes.length; i++) {
             bytes[i] = b;
         }
+        filled.bytes += size;
         return bytes;
     }
 
     @Benchmark
     @CompilerControl(CompilerControl.Mode.DONT_INLINE)
-    public byte[] maybeMemset() {
+    public byte[] handrolledWide(BytesCounter filled) {
+        //SWAR: 8 bytes per store, while the bytes left are written one by one
+        final int wideLength = bytes.length & ~(Long.BYTES - 1);
+        for (int i = 0; i < wideLength; i += Long.BYTES) {
+            UNSAFE.putLong(bytes, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + i, wideB);
+        }
+        for (int i = wideLength; i < bytes.length; i++) {
+            bytes[i] = b;
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledWideReverse(BytesCounter filled) {
+        //does the manual widening rescue handrolledReverse? an eighth of the iterations, but still no intrinsic
+        final int wideLength = bytes.length & ~(Long.BYTES - 1);
+        for (int i = bytes.length - 1; i >= wideLength; i--) {
+            bytes[i] = b;
+        }
+        for (int i = wideLength - Long.BYTES; i >= 0; i -= Long.BYTES) {
+            UNSAFE.putLong(bytes, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + i, wideB);
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] maybeMemset(BytesCounter filled) {
         //it could be used Copy::fill_to_memory_atomic due to offset alignment
         //https://github.com/JetBrains/jdk8u_hotspot/blob/master/src/share/vm/utilities/copy.cpp#L58
         UNSAFE.setMemory(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET, size, b);
+        filled.bytes += size;
         return bytes;
     }
 
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer directBulkPut(BytesCounter filled) {
+        //DirectByteBuffer::put(byte[]) ends up into Unsafe::copyMemory: it is a copy from heap, not a memset
+        //Buffer cast: ByteBuffer::clear covariant override doesn't exist on JDK 8
+        ((Buffer) directBytes).clear();
+        directBytes.put(bytes);
+        filled.bytes += size;
+        return directBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapMemset(BytesCounter filled) {
+        //same Copy::fill_to_memory_atomic of maybeMemset, but the address is always 8 bytes aligned by malloc
+        UNSAFE.setMemory(address, size, b);
+        filled.bytes += size;
+        return address;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapPutLong(BytesCounter filled) {
+        //no range checks, but a long induction variable isn't a counted loop for C2: no unrolling nor SuperWord
+        for (long offset = 0; offset < size; offset += Long.BYTES) {
+            UNSAFE.putLong(address + offset, wideB);
+        }
+        filled.bytes += size;
+        return address;
+    }
 
     public static void main(String[] args) throws RunnerException {
         runBenchmark(ArrayFillBenchmark.class);
     }
 
 
-    public static void runBenchmark(Class<?> benchmarkClass) throws RunnerException {
-        final Options opt = new OptionsBuilder()
+    /**
+     * @param profilers added on top of {@link LinuxPerfAsmProfiler} (eg {@link org.openjdk.jmh.profile.GCProfiler})
+     */
+    @SafeVarargs
+    public static void runBenchmark(Class<?> benchmarkClass, Class<? extends Profiler>... profilers) throws RunnerException {
+        runBenchmark(benchmarkClass, 0, profilers);
+    }
+
+    /**
+     * @param threads how many threads run each benchmark (for {@code @Group} ones the total, rounded up to the group size)
+     *                or 0 to stick with the annotations
+     * @param profilers added on top of {@link LinuxPerfAsmProfiler} (eg {@link org.openjdk.jmh.profile.GCProfiler})
+     */
+    @SafeVarargs
+    public static void runBenchmark(Class<?> benchmarkClass, int threads, Class<? extends Profiler>... profilers) throws RunnerException {
+        final ChainedOptionsBuilder builder = new OptionsBuilder()
                 .include(benchmarkClass.getSimpleName())
-                .addProfiler(LinuxPerfAsmProfiler.class)
+                .addProfiler(LinuxPerfAsmProfiler.class);
+        for (Class<? extends Profiler> profiler : profilers) {
+            builder.addProfiler(profiler);
+        }
+        if (threads > 0) {
+            builder.threads(threads);
+        }
+        final Options opt = builder
                 .warmupIterations(5)
                 .measurementIterations(5)
                 .forks(1)
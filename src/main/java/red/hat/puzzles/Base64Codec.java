@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import java.util.Arrays;
+
+/**
+ * Table driven Base64 (RFC 4648 basic alphabet, padded) codec writing into preallocated arrays:
+ * 3 bytes are packed into an {@code int} and turned into 4 characters with 4 table lookups, and vice versa.
+ */
+public final class Base64Codec {
+
+    private static final byte[] ENCODE = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+    private static final int[] DECODE = new int[256];
+    private static final byte PAD = '=';
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ENCODE.length; i++) {
+            DECODE[ENCODE[i]] = i;
+        }
+    }
+
+    private Base64Codec() {
+    }
+
+    public static int encodedLength(int length) {
+        return 4 * ((length + 2) / 3);
+    }
+
+    /**
+     * @return the offset after the last written character
+     */
+    public static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        final int end = offset + length;
+        final int wideEnd = end - length % 3;
+        int i = offset;
+        for (; i < wideEnd; i += 3) {
+            final int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[dstOffset++] = ENCODE[bits >>> 18];
+            dst[dstOffset++] = ENCODE[(bits >>> 12) & 0x3F];
+            dst[dstOffset++] = ENCODE[(bits >>> 6) & 0x3F];
+            dst[dstOffset++] = ENCODE[bits & 0x3F];
+        }
+        final int remaining = end - i;
+        if (remaining > 0) {
+            final int bits = (src[i] & 0xFF) << 16 | (remaining == 2 ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[dstOffset++] = ENCODE[bits >>> 18];
+            dst[dstOffset++] = ENCODE[(bits >>> 12) & 0x3F];
+            dst[dstOffset++] = remaining == 2 ? ENCODE[(bits >>> 6) & 0x3F] : PAD;
+            dst[dstOffset++] = PAD;
+        }
+        return dstOffset;
+    }
+
+    /**
+     * @return the offset after the last written byte
+     * @throws IllegalArgumentException if the length isn't a multiple of 4 or there are invalid characters
+     */
+    public static int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        if ((length & 3) != 0) {
+            throw new IllegalArgumentException("the length isn't a multiple of 4: " + length);
+        }
+        if (length == 0) {
+            return dstOffset;
+        }
+        final int end = offset + length;
+        final int padding = src[end - 1] == PAD ? (src[end - 2] == PAD ? 2 : 1) : 0;
+        //the last quantum is decoded apart if padded
+        final int wideEnd = padding == 0 ? end : end - 4;
+        int i = offset;
+        for (; i < wideEnd; i += 4) {
+            //any invalid character makes it negative
+            final int bits = DECODE[src[i] & 0xFF] << 18 | DECODE[src[i + 1] & 0xFF] << 12
+                    | DECODE[src[i + 2] & 0xFF] << 6 | DECODE[src[i + 3] & 0xFF];
+            if (bits < 0) {
+                throw new IllegalArgumentException("invalid Base64 character around " + i);
+            }
+            dst[dstOffset++] = (byte) (bits >>> 16);
+            dst[dstOffset++] = (byte) (bits >>> 8);
+            dst[dstOffset++] = (byte) bits;
+        }
+        if (padding > 0) {
+            final int bits = DECODE[src[i] & 0xFF] << 18 | DECODE[src[i + 1] & 0xFF] << 12
+                    | (padding == 1 ? DECODE[src[i + 2] & 0xFF] << 6 : 0);
+            if (bits < 0) {
+                throw new IllegalArgumentException("invalid Base64 character around " + i);
+            }
+            dst[dstOffset++] = (byte) (bits >>> 16);
+            if (padding == 1) {
+                dst[dstOffset++] = (byte) (bits >>> 8);
+            }
+        }
+        return dstOffset;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LongBitmap} against {@link BitSet} with the same content: in place bulk ops, cardinality and iteration
+ * over the set bits with {@code nextSetBit}.
+ * <p>
+ * The bulk ops of both share the same loop shape and are bound by the memory bandwidth on the biggest sizes:
+ * on the smaller ones {@link BitSet} pays for its bookkeeping (words in use, capacity checks) too.
+ * <p>
+ * NOTE: the bitmaps are 50% ({@code density = 50}) or 1% full, at random; the in place ops converge after
+ * the first invocation (eg {@code a & b & b == a & b}), but they always scan all the words.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class BitmapBenchmark {
+
+    //from 128 KB up to 128 MB per bitmap
+    @Param({"1048576", "16777216", "134217728", "1073741824"})
+    private int bits;
+    @Param({"1", "50"})
+    private int density;
+    private LongBitmap bitmap;
+    private LongBitmap otherBitmap;
+    private BitSet bitSet;
+    private BitSet otherBitSet;
+
+    @Setup
+    public void init() {
+        final SplittableRandom random = new SplittableRandom(42);
+        bitmap = randomBitmap(random);
+        otherBitmap = randomBitmap(random);
+        bitSet = BitSet.valueOf(bitmap.words());
+        otherBitSet = BitSet.valueOf(otherBitmap.words());
+    }
+
+    private LongBitmap randomBitmap(SplittableRandom random) {
+        final LongBitmap bitmap = new LongBitmap(bits);
+        if (density == 50) {
+            final long[] words = bitmap.words();
+            for (int i = 0; i < words.length; i++) {
+                words[i] = random.nextLong();
+            }
+        } else {
+            //collisions make it a bit less than density %
+            for (long i = 0, setBits = (long) bits * density / 100; i < setBits; i++) {
+                bitmap.set(random.nextInt(bits));
+            }
+        }
+        return bitmap;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public LongBitmap andBitmap(BytesCounter processed) {
+        bitmap.and(otherBitmap);
+        processed.bytes += bits / Byte.SIZE;
+        return bitmap;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public BitSet andBitSet(BytesCounter processed) {
+        bitSet.and(otherBitSet);
+        processed.bytes += bits / Byte.SIZE;
+        return bitSet;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public LongBitmap orBitmap(BytesCounter processed) {
+        bitmap.or(otherBitmap);
+        processed.bytes += bits / Byte.SIZE;
+        return bitmap;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public BitSet orBitSet(BytesCounter processed) {
+        bitSet.or(otherBitSet);
+        processed.bytes += bits / Byte.SIZE;
+        return bitSet;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public LongBitmap andNotBitmap(BytesCounter processed) {
+        bitmap.andNot(otherBitmap);
+        processed.bytes += bits / Byte.SIZE;
+        return bitmap;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public BitSet andNotBitSet(BytesCounter processed) {
+        bitSet.andNot(otherBitSet);
+        processed.bytes += bits / Byte.SIZE;
+        return bitSet;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int cardinalityBitmap(BytesCounter processed) {
+        final int cardinality = bitmap.cardinality();
+        processed.bytes += bits / Byte.SIZE;
+        return cardinality;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int cardinalityBitSet(BytesCounter processed) {
+        final int cardinality = bitSet.cardinality();
+        processed.bytes += bits / Byte.SIZE;
+        return cardinality;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long iterateBitmap(BytesCounter processed) {
+        long sum = 0;
+        for (int i = bitmap.nextSetBit(0); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+            sum += i;
+        }
+        processed.bytes += bits / Byte.SIZE;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long iterateBitSet(BytesCounter processed) {
+        long sum = 0;
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            sum += i;
+        }
+        processed.bytes += bits / Byte.SIZE;
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(BitmapBenchmark.class);
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How to get a zeroed buffer: allocate a new one, zero a reused one or zero a pooled one?
+ * <p>
+ * The allocation zeroing is hidden in {@code new byte[size]} and the GC pays for the garbage, hence it runs with
+ * {@link GCProfiler} too: the G1 region size is fixed to 1 MB to make any allocation >= 512 KB humongous
+ * (ie directly allocated in dedicated regions, out of the TLABs).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xmx2g", "-XX:+UseG1GC", "-XX:G1HeapRegionSize=1m"})
+public class BufferAllocationBenchmark {
+
+    /**
+     * The simplest (non thread-safe) pool: it allocates only when empty.
+     */
+    @State(Scope.Thread)
+    public static class BufferPool {
+
+        private final ArrayDeque<byte[]> buffers = new ArrayDeque<>();
+
+        public byte[] acquire(int size) {
+            final byte[] buffer = buffers.poll();
+            return buffer != null ? buffer : new byte[size];
+        }
+
+        public void release(byte[] buffer) {
+            buffers.offer(buffer);
+        }
+    }
+
+    //the humongous threshold is 512 KB
+    @Param({"256", "4096", "32768", "262144", "524288", "1048576", "4194304", "16777216"})
+    private int size;
+    private byte[] buffer;
+
+    @Setup
+    public void init() {
+        buffer = new byte[size];
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] allocate(BytesCounter zeroed) {
+        final byte[] buffer = new byte[size];
+        zeroed.bytes += size;
+        return buffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] reuse(BytesCounter zeroed) {
+        Arrays.fill(buffer, (byte) 0);
+        zeroed.bytes += size;
+        return buffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] pooled(BufferPool pool, BytesCounter zeroed) {
+        final byte[] buffer = pool.acquire(size);
+        Arrays.fill(buffer, (byte) 0);
+        pool.release(buffer);
+        zeroed.bytes += size;
+        return buffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] pooledDirty(BufferPool pool) {
+        //for users that overwrite the whole buffer anyway: the pool overhead alone, nothing is zeroed
+        final byte[] buffer = pool.acquire(size);
+        pool.release(buffer);
+        return buffer;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(BufferAllocationBenchmark.class, GCProfiler.class);
+    }
+
+}
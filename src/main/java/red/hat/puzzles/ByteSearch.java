@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import sun.misc.Unsafe;
+
+import java.nio.ByteOrder;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * SWAR (SIMD Within A Register) byte search: 8 bytes are checked at once with the "has zero byte" trick
+ * from <a href="https://graphics.stanford.edu/~seander/bithacks.html#ZeroInWord">Bit Twiddling Hacks</a>.
+ */
+public final class ByteSearch {
+
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private ByteSearch() {
+    }
+
+    public static int indexOf(byte[] bytes, byte b) {
+        return indexOf(bytes, 0, bytes.length, b);
+    }
+
+    /**
+     * @return the index of the first {@code b} in [from, to) or -1 if not found
+     */
+    public static int indexOf(byte[] bytes, int from, int to, byte b) {
+        //Unsafe reads won't check anything: do it upfront
+        if (from < 0 || from > to || to > bytes.length) {
+            throw new IndexOutOfBoundsException("from = " + from + " to = " + to + " length = " + bytes.length);
+        }
+        final long pattern = (b & 0xFFL) * ONES;
+        final int wideTo = from + ((to - from) & ~(Long.BYTES - 1));
+        int i = from;
+        for (; i < wideTo; i += Long.BYTES) {
+            long word = UNSAFE.getLong(bytes, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            if (BIG_ENDIAN) {
+                word = Long.reverseBytes(word);
+            }
+            final long found = zeroBytes(word ^ pattern);
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The high bit of each zero byte of {@code word} is set: the borrows could set false positives too,
+     * but only on bytes after the first zero one (in little endian order).
+     */
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGHS;
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Secondary metric: JMH reports it as processed bytes per {@link OutputTimeUnit} next to the ops one.
+ * <p>
+ * NOTE: it is a {@link Scope#Thread} state, hence multi-threaded benchmarks sum up the bytes of all the threads.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class BytesCounter {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the reference array benchmarks ({@link TypedFillBenchmark} {@code Object[]} fills and {@link ReferenceCopyBenchmark})
+ * once per garbage collector and prints their bandwidth side by side, to compare the cost of the GC barriers.
+ * <p>
+ * The collectors not supported by the running JVM (eg Shenandoah on most Oracle builds, ZGC before 11) are skipped:
+ * the ones to run can be chosen by name too, eg {@code GcBarrierMatrix G1 Z}.
+ * <p>
+ * NOTE: there is no perfasm here, because it would run once per collector too: use {@code runBenchmark}
+ * with the collector flag to dig into a single one.
+ */
+public final class GcBarrierMatrix {
+
+    private static final String INCLUDE = "(TypedFillBenchmark\\.(fill|handrolled)(Null|Object)|ReferenceCopyBenchmark\\..+)$";
+
+    private enum Collector {
+        G1("-XX:+UseG1GC"),
+        Parallel("-XX:+UseParallelGC"),
+        //experimental before JDK 15
+        Z("-XX:+UnlockExperimentalVMOptions", "-XX:+UseZGC"),
+        Shenandoah("-XX:+UnlockExperimentalVMOptions", "-XX:+UseShenandoahGC");
+
+        private final String[] flags;
+
+        Collector(String... flags) {
+            this.flags = flags;
+        }
+
+        boolean isSupported() {
+            final List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.addAll(Arrays.asList(flags));
+            command.add("-version");
+            try {
+                //the -version output is too small to fill the pipe: no need to drain it
+                return new ProcessBuilder(command).redirectErrorStream(true).start().waitFor() == 0;
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private GcBarrierMatrix() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final List<Collector> collectors = new ArrayList<>();
+        for (Collector collector : Collector.values()) {
+            if (args.length > 0 && !Arrays.asList(args).contains(collector.name())) {
+                continue;
+            }
+            if (!collector.isSupported()) {
+                System.out.println(collector + " isn't supported by this JVM: skipped");
+                continue;
+            }
+            collectors.add(collector);
+        }
+        //benchmark -> collector -> result, in the JMH order
+        final Map<String, Map<Collector, Result<?>>> table = new LinkedHashMap<>();
+        for (Collector collector : collectors) {
+            final String[] jvmArgs = Arrays.copyOf(collector.flags, collector.flags.length + 1);
+            //it replaces the @Fork one
+            jvmArgs[collector.flags.length] = "-Xmx2g";
+            final Options opt = new OptionsBuilder()
+                    .include(INCLUDE)
+                    .jvmArgsAppend(jvmArgs)
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .forks(1)
+                    .build();
+            for (RunResult result : new Runner(opt).run()) {
+                table.computeIfAbsent(label(result.getParams()), key -> new LinkedHashMap<>())
+                        .put(collector, bandwidth(result));
+            }
+        }
+        print(table, collectors);
+    }
+
+    private static String label(BenchmarkParams params) {
+        final String benchmark = params.getBenchmark();
+        final StringBuilder label = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+        for (String key : params.getParamsKeys()) {
+            label.append(' ').append(key).append('=').append(params.getParam(key));
+        }
+        return label.toString();
+    }
+
+    /**
+     * The {@link BytesCounter} secondary result, ie comparable between different sizes.
+     */
+    private static Result<?> bandwidth(RunResult result) {
+        final Result<?> bytes = result.getSecondaryResults().get("bytes");
+        return bytes != null ? bytes : result.getPrimaryResult();
+    }
+
+    private static void print(Map<String, Map<Collector, Result<?>>> table, List<Collector> collectors) {
+        int labelWidth = "Benchmark".length();
+        for (String label : table.keySet()) {
+            labelWidth = Math.max(labelWidth, label.length());
+        }
+        final String labelFormat = "%-" + labelWidth + "s";
+        final String cellFormat = "  %28s";
+        final StringBuilder header = new StringBuilder(String.format(labelFormat, "Benchmark"));
+        for (Collector collector : collectors) {
+            header.append(String.format(cellFormat, collector));
+        }
+        System.out.println();
+        System.out.println(header);
+        for (Map.Entry<String, Map<Collector, Result<?>>> row : table.entrySet()) {
+            final StringBuilder line = new StringBuilder(String.format(labelFormat, row.getKey()));
+            for (Collector collector : collectors) {
+                final Result<?> result = row.getValue().get(collector);
+                line.append(String.format(cellFormat, result == null ? "-" :
+                        String.format("%.3e +- %.1e %s", result.getScore(), result.getScoreError(), result.getScoreUnit())));
+            }
+            System.out.println(line);
+        }
+    }
+}
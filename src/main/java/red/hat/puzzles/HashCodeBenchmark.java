@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Arrays#hashCode(byte[])} against {@link PolynomialHash#hashCode(byte[])} on the fill fixtures.
+ * <p>
+ * NOTE: JDK 21+ intrinsifies {@code Arrays::hashCode} with vectorized stubs (JDK-8282664): compare with JDK 8/17 too.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class HashCodeBenchmark {
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216"})
+    private int size;
+    private byte[] bytes;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        if (Arrays.hashCode(bytes) != PolynomialHash.hashCode(bytes)) {
+            throw new IllegalStateException("PolynomialHash::hashCode isn't a drop-in replacement of Arrays::hashCode");
+        }
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int arraysHashCode(BytesCounter hashed) {
+        final int hash = Arrays.hashCode(bytes);
+        hashed.bytes += size;
+        return hash;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int polynomialHashCode(BytesCounter hashed) {
+        final int hash = PolynomialHash.hashCode(bytes);
+        hashed.bytes += size;
+        return hash;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(HashCodeBenchmark.class);
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import sun.misc.Unsafe;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Lower case hex codec writing ASCII bytes into preallocated arrays, ie no {@code String} round trips.
+ */
+public final class HexCodec {
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes();
+    //2 ASCII digits per byte value, already in the right order
+    private static final byte[] ENCODE = new byte[256 * 2];
+    private static final byte[] DECODE = new byte[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            ENCODE[i * 2] = DIGITS[i >>> 4];
+            ENCODE[i * 2 + 1] = DIGITS[i & 0xF];
+        }
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DECODE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DECODE['a' + i] = (byte) (10 + i);
+            DECODE['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * Table driven encoding: 2 loads from a 512 bytes table per byte.
+     *
+     * @return the offset after the last written digit
+     */
+    public static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            final int index = (src[i] & 0xFF) << 1;
+            dst[dstOffset++] = ENCODE[index];
+            dst[dstOffset++] = ENCODE[index + 1];
+        }
+        return dstOffset;
+    }
+
+    /**
+     * SWAR encoding: 4 bytes are spread into 8 nibbles, one per byte of a {@code long}, and turned into
+     * ASCII digits all together, without any table lookup.
+     *
+     * @return the offset after the last written digit
+     */
+    public static int encodeSwar(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        if (offset < 0 || length < 0 || offset > src.length - length || dstOffset < 0 || dstOffset > dst.length - 2 * length) {
+            throw new IndexOutOfBoundsException();
+        }
+        final int end = offset + length;
+        final int wideEnd = offset + (length & ~(Integer.BYTES - 1));
+        int i = offset;
+        for (; i < wideEnd; i += Integer.BYTES, dstOffset += Long.BYTES) {
+            int word = UNSAFE.getInt(src, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            //first byte on the most significant bits: its digits will be the first ones too
+            if (LITTLE_ENDIAN) {
+                word = Integer.reverseBytes(word);
+            }
+            long digits = toDigits(spreadNibbles(word & 0xFFFFFFFFL));
+            if (LITTLE_ENDIAN) {
+                digits = Long.reverseBytes(digits);
+            }
+            UNSAFE.putLong(dst, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + dstOffset, digits);
+        }
+        return encode(src, i, end - i, dst, dstOffset);
+    }
+
+    /**
+     * Each nibble of the 32 bits {@code value} in its own byte, most significant first.
+     */
+    private static long spreadNibbles(long value) {
+        value = (value | (value << 16)) & 0x0000FFFF0000FFFFL;
+        value = (value | (value << 8)) & 0x00FF00FF00FF00FFL;
+        return (value | (value << 4)) & 0x0F0F0F0F0F0F0F0FL;
+    }
+
+    /**
+     * '0' + nibble, plus ('a' - '0' - 10) for the nibbles >= 10: nibble + 6 sets the bit 4 exactly for them.
+     */
+    private static long toDigits(long nibbles) {
+        final long letters = ((nibbles + 0x0606060606060606L) >>> 4) & 0x0101010101010101L;
+        return nibbles + 0x3030303030303030L + letters * ('a' - '0' - 10);
+    }
+
+    /**
+     * Table driven decoding of upper or lower case digits.
+     *
+     * @return the offset after the last written byte
+     * @throws IllegalArgumentException on odd lengths or invalid digits
+     */
+    public static int decode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        if ((length & 1) != 0) {
+            throw new IllegalArgumentException("odd number of hex digits: " + length);
+        }
+        for (int i = offset, end = offset + length; i < end; i += 2) {
+            final int high = DECODE[src[i] & 0xFF];
+            final int low = DECODE[src[i + 1] & 0xFF];
+            if ((high | low) < 0) {
+                throw new IllegalArgumentException("invalid hex digit at " + i);
+            }
+            dst[dstOffset++] = (byte) (high << 4 | low);
+        }
+        return dstOffset;
+    }
+}
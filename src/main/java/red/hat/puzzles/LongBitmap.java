@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+/**
+ * Fixed size bitmap on a {@code long[]}, with the same bit layout of {@link java.util.BitSet}.
+ * <p>
+ * Unlike {@link java.util.BitSet} it never grows nor tracks the words in use: the bulk operations are plain
+ * counted loops over all the words of both bitmaps, ie the {@code fillLong} shape SuperWord can vectorize.
+ */
+public final class LongBitmap {
+
+    private static final int WORD_SHIFT = 6;
+
+    private final long[] words;
+    private final int bits;
+
+    public LongBitmap(int bits) {
+        if (bits < 0) {
+            throw new IllegalArgumentException("bits must be >= 0: " + bits);
+        }
+        this.words = new long[(int) ((bits + 63L) >>> WORD_SHIFT)];
+        this.bits = bits;
+    }
+
+    public int size() {
+        return bits;
+    }
+
+    public long[] words() {
+        return words;
+    }
+
+    //the last word can have padding bits past the size: the backing array alone won't reject them
+    private void checkIndex(int index) {
+        if (index < 0 || index >= bits) {
+            throw new IndexOutOfBoundsException("index = " + index + " size = " + bits);
+        }
+    }
+
+    public boolean get(int index) {
+        checkIndex(index);
+        //the shift distance uses only the lowest 6 bits of index
+        return (words[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+
+    public void set(int index) {
+        checkIndex(index);
+        words[index >>> WORD_SHIFT] |= 1L << index;
+    }
+
+    public void clear(int index) {
+        checkIndex(index);
+        words[index >>> WORD_SHIFT] &= ~(1L << index);
+    }
+
+    private void checkSameSize(LongBitmap other) {
+        if (other.words.length != words.length) {
+            throw new IllegalArgumentException("different sizes: " + bits + " and " + other.bits);
+        }
+    }
+
+    public void and(LongBitmap other) {
+        checkSameSize(other);
+        final long[] words = this.words;
+        final long[] otherWords = other.words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= otherWords[i];
+        }
+    }
+
+    public void or(LongBitmap other) {
+        checkSameSize(other);
+        final long[] words = this.words;
+        final long[] otherWords = other.words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= otherWords[i];
+        }
+    }
+
+    public void andNot(LongBitmap other) {
+        checkSameSize(other);
+        final long[] words = this.words;
+        final long[] otherWords = other.words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~otherWords[i];
+        }
+    }
+
+    public int cardinality() {
+        //popcnt per word: recent JDKs can vectorize it too
+        final long[] words = this.words;
+        int cardinality = 0;
+        for (int i = 0; i < words.length; i++) {
+            cardinality += Long.bitCount(words[i]);
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return the index of the first set bit >= {@code from} or -1 if there isn't any
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("from < 0: " + from);
+        }
+        int wordIndex = from >>> WORD_SHIFT;
+        if (wordIndex >= words.length) {
+            return -1;
+        }
+        //the bits before from are masked off
+        long word = words[wordIndex] & (-1L << from);
+        while (word == 0) {
+            if (++wordIndex == words.length) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return (wordIndex << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+}
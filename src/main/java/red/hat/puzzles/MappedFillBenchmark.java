@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import sun.misc.Unsafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Pre-zeroing a memory mapped file segment isn't a plain memset:
+ * <ul>
+ * <li>{@code mapAndFill} maps (and unmaps) the region on each invocation, paying a (minor) page fault on the first touch of each page</li>
+ * <li>{@code mappedFill} fills an already resident mapping: the pages just stay dirty until the kernel writes them back</li>
+ * <li>{@code mappedFillForce} forces the write back (ie msync) after each fill</li>
+ * </ul>
+ * NOTE: the temporary file is on {@code java.io.tmpdir}: on tmpfs {@code force()} is a no-op.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class MappedFillBenchmark {
+
+    private static final MethodHandle UNMAP = unmapHandle();
+
+    /**
+     * {@code Unsafe::invokeCleaner} on JDK 9+, {@code ((DirectBuffer) buffer).cleaner().clean()} on JDK 8.
+     */
+    private static MethodHandle unmapHandle() {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            return lookup.findVirtual(Unsafe.class, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(UNSAFE);
+        } catch (NoSuchMethodException | IllegalAccessException notJdk9) {
+            try {
+                final MethodHandle cleaner = lookup.unreflect(Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner"));
+                final MethodHandle clean = lookup.unreflect(Class.forName("sun.misc.Cleaner").getMethod("clean"));
+                return MethodHandles.filterReturnValue(cleaner, clean).asType(MethodType.methodType(void.class, ByteBuffer.class));
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+    }
+
+    /**
+     * Releases the mapping right away instead of waiting for {@code buffer} to be garbage collected:
+     * {@code buffer} mustn't be used anymore.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            UNMAP.invokeExact((ByteBuffer) buffer);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Param({"4096", "262144", "2097152", "16777216", "67108864"})
+    private int size;
+    private byte[] bytes;
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private long address;
+    private byte b;
+
+    @Setup
+    public void init() throws IOException {
+        bytes = new byte[size];
+        file = File.createTempFile(MappedFillBenchmark.class.getSimpleName(), ".bin");
+        file.deleteOnExit();
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength(size);
+        channel = raf.getChannel();
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        address = ArrayFillBenchmark.address(mapped);
+        b = 1;
+    }
+
+    @TearDown
+    public void release() throws IOException {
+        unmap(mapped);
+        channel.close();
+        raf.close();
+        file.delete();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] fill(BytesCounter filled) {
+        Arrays.fill(bytes, b);
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long mapAndFill(BytesCounter filled) throws IOException {
+        //the page cache is still populated by the previous mappings, hence no major faults
+        final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        final long address = ArrayFillBenchmark.address(mapped);
+        try {
+            UNSAFE.setMemory(address, size, b);
+        } finally {
+            //leaving it to GC piles up mappings until mmap fails on vm.max_map_count
+            unmap(mapped);
+        }
+        filled.bytes += size;
+        return address;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public MappedByteBuffer mappedFill(BytesCounter filled) {
+        UNSAFE.setMemory(address, size, b);
+        filled.bytes += size;
+        return mapped;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public MappedByteBuffer mappedFillForce(BytesCounter filled) {
+        UNSAFE.setMemory(address, size, b);
+        mapped.force();
+        filled.bytes += size;
+        return mapped;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(MappedFillBenchmark.class);
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * {@link ArrayFillBenchmark} always fills from the first element: here the fills start from a misaligned
+ * offset of a shared buffer and stop before a misaligned end, as a slice of it would do.
+ * <p>
+ * NOTE: the byte[] content starts at {@link Unsafe#ARRAY_BYTE_BASE_OFFSET} (16 bytes with compressed class pointers)
+ * hence {@code offset} = 0 is 16 bytes aligned and only 64 bytes cache line aligned by chance.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MisalignedFillBenchmark {
+
+    private static final int MAX_OFFSET = 64;
+
+    //a subset of the ArrayFillBenchmark grid: the offset/remainder cross product is already big enough
+    @Param({"256", "4096", "32768", "262144", "16777216"})
+    private int size;
+    @Param({"0", "1", "7", "8", "16", "31", "32", "63"})
+    private int offset;
+    //how many bytes the fill stops before the end of the slice
+    @Param({"0", "1", "7"})
+    private int remainder;
+    private byte[] bytes;
+    private int to;
+    private int length;
+    private byte b;
+
+    @Setup
+    public void init() {
+        bytes = new byte[MAX_OFFSET + size];
+        length = size - remainder;
+        to = offset + length;
+        b = 1;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] fillRange(BytesCounter filled) {
+        //the intrinsic stub needs a pre loop to align the stores and a post loop for the tail
+        Arrays.fill(bytes, offset, to, b);
+        filled.bytes += length;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] maybeMemset(BytesCounter filled) {
+        //Copy::fill_to_memory_atomic picks the widest store allowed by the alignment of both address and length:
+        //https://github.com/JetBrains/jdk8u_hotspot/blob/master/src/share/vm/utilities/copy.cpp#L58
+        UNSAFE.setMemory(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, length, b);
+        filled.bytes += length;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolled(BytesCounter filled) {
+        for (int i = offset; i < to; i++) {
+            bytes[i] = b;
+        }
+        filled.bytes += length;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledReverse(BytesCounter filled) {
+        for (int i = to - 1; i >= offset; i--) {
+            bytes[i] = b;
+        }
+        filled.bytes += length;
+        return bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(MisalignedFillBenchmark.class);
+    }
+
+}
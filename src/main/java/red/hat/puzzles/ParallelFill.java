@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Fills a {@code byte[]} or an off-heap region by splitting it in halves until each chunk is no bigger than
+ * {@code grain}, on a {@link ForkJoinPool}.
+ * <p>
+ * The split points are cache line aligned, hence no cache line is written by more than one worker:
+ * off-heap it is true for the absolute address, while heap arrays can be moved by the GC and are
+ * aligned on the element index only (ie at most one shared line per chunk boundary).
+ */
+public final class ParallelFill {
+
+    public static final int CACHE_LINE_BYTES = 64;
+
+    private final ForkJoinPool pool;
+    private final long grain;
+
+    /**
+     * @param grain the maximum chunk size in bytes filled by a single task: it is rounded up to 2 cache lines
+     */
+    public ParallelFill(ForkJoinPool pool, long grain) {
+        this.pool = pool;
+        this.grain = Math.max(grain, 2 * CACHE_LINE_BYTES);
+    }
+
+    public void fill(byte[] bytes, byte b) {
+        pool.invoke(new HeapFill(bytes, 0, bytes.length, b));
+    }
+
+    public void fill(long address, long length, byte b) {
+        pool.invoke(new OffHeapFill(address, address + length, b));
+    }
+
+    /**
+     * The middle of [from, to) rounded down to a cache line boundary (relative to {@code 0}):
+     * given that {@code to - from > grain >= 2 * CACHE_LINE_BYTES} it is always after {@code from}.
+     */
+    private static long alignedMiddle(long from, long to) {
+        final long middle = from + ((to - from) >>> 1);
+        return middle & ~(CACHE_LINE_BYTES - 1);
+    }
+
+    private final class HeapFill extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private final int from;
+        private final int to;
+        private final byte b;
+
+        HeapFill(byte[] bytes, int from, int to, byte b) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.b = b;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                Arrays.fill(bytes, from, to, b);
+                return;
+            }
+            final int middle = (int) alignedMiddle(from, to);
+            invokeAll(new HeapFill(bytes, from, middle, b), new HeapFill(bytes, middle, to, b));
+        }
+    }
+
+    private final class OffHeapFill extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final byte b;
+
+        OffHeapFill(long from, long to, byte b) {
+            this.from = from;
+            this.to = to;
+            this.b = b;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                UNSAFE.setMemory(from, to - from, b);
+                return;
+            }
+            final long middle = alignedMiddle(from, to);
+            invokeAll(new OffHeapFill(from, middle, b), new OffHeapFill(middle, to, b));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * How {@link ParallelFill} bandwidth scales with the number of threads and where it stops: a single thread
+ * can't saturate the memory bandwidth, but once the data doesn't fit the caches anymore more threads
+ * just queue up on the memory controllers.
+ * <p>
+ * NOTE: threads = 1 is the {@code ArrayFillBenchmark::fill} baseline plus the fork/join overhead.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ParallelFillBenchmark {
+
+    /**
+     * Secondary metric: JMH reports it as GB/s next to the ops one.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bandwidth {
+
+        public double gigabytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            gigabytes = 0;
+        }
+    }
+
+    private static final double GIGA = 1_000_000_000d;
+
+    @Param({"2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    private int threads;
+    //the partition granularity
+    @Param({"65536", "1048576", "8388608"})
+    private int grain;
+    private byte[] bytes;
+    private long address;
+    private ForkJoinPool pool;
+    private ParallelFill parallelFill;
+    private byte b;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        address = UNSAFE.allocateMemory(size);
+        pool = new ForkJoinPool(threads);
+        parallelFill = new ParallelFill(pool, grain);
+        b = 1;
+    }
+
+    @TearDown
+    public void release() {
+        pool.shutdownNow();
+        UNSAFE.freeMemory(address);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] fill(Bandwidth bandwidth) {
+        parallelFill.fill(bytes, b);
+        bandwidth.gigabytes += size / GIGA;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapFill(Bandwidth bandwidth) {
+        parallelFill.fill(address, size, b);
+        bandwidth.gigabytes += size / GIGA;
+        return address;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ParallelFillBenchmark.class);
+    }
+
+}
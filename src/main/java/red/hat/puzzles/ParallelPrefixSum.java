@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * In place inclusive prefix sum (the same as {@code Arrays.parallelPrefix(a, Long::sum)}) of {@code long[]}
+ * and {@code int[]}, blocked and in 2 passes on a {@link ForkJoinPool}:
+ * <ol>
+ * <li>each block but the last one is summed in parallel</li>
+ * <li>the block sums are turned (serially) into the offset of each block</li>
+ * <li>each block is scanned in parallel, starting from its offset</li>
+ * </ol>
+ * Hence each element is read twice and written once, in sequential runs, against the many more (and smaller)
+ * tasks {@code Arrays::parallelPrefix} creates. There is a block per worker, but arrays too small to give
+ * each block at least {@link #MIN_BLOCK_LENGTH} elements use fewer blocks, down to a serial scan.
+ * <p>
+ * NOTE: instances aren't thread safe, because of the reused block sums.
+ */
+public final class ParallelPrefixSum {
+
+    public static final int MIN_BLOCK_LENGTH = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final long[] blockSums;
+
+    public ParallelPrefixSum(ForkJoinPool pool) {
+        this.pool = pool;
+        this.blockSums = new long[pool.getParallelism()];
+    }
+
+    public static void serialPrefixSum(long[] longs, int from, int to, long offset) {
+        long sum = offset;
+        for (int i = from; i < to; i++) {
+            sum += longs[i];
+            longs[i] = sum;
+        }
+    }
+
+    public static void serialPrefixSum(int[] ints, int from, int to, int offset) {
+        int sum = offset;
+        for (int i = from; i < to; i++) {
+            sum += ints[i];
+            ints[i] = sum;
+        }
+    }
+
+    private int blocks(int length) {
+        return Math.min(blockSums.length, Math.max(1, length / MIN_BLOCK_LENGTH));
+    }
+
+    private static int blockStart(int length, int blocks, int block) {
+        return (int) ((long) length * block / blocks);
+    }
+
+    /**
+     * Turns the block sums into the exclusive prefix sum, ie the offset of each block.
+     */
+    private void toBlockOffsets(int blocks) {
+        final long[] blockSums = this.blockSums;
+        long sum = 0;
+        for (int i = 0; i < blocks; i++) {
+            final long blockSum = blockSums[i];
+            blockSums[i] = sum;
+            sum += blockSum;
+        }
+    }
+
+    public void prefixSum(long[] longs) {
+        final int length = longs.length;
+        final int blocks = blocks(length);
+        if (blocks == 1) {
+            serialPrefixSum(longs, 0, length, 0);
+            return;
+        }
+        final long[] blockSums = this.blockSums;
+        //the last block sum isn't needed by any offset
+        pool.invoke(new Blocks(0, blocks - 1, block -> {
+            long sum = 0;
+            for (int i = blockStart(length, blocks, block), end = blockStart(length, blocks, block + 1); i < end; i++) {
+                sum += longs[i];
+            }
+            blockSums[block] = sum;
+        }));
+        toBlockOffsets(blocks);
+        pool.invoke(new Blocks(0, blocks, block ->
+                serialPrefixSum(longs, blockStart(length, blocks, block), blockStart(length, blocks, block + 1), blockSums[block])));
+    }
+
+    public void prefixSum(int[] ints) {
+        final int length = ints.length;
+        final int blocks = blocks(length);
+        if (blocks == 1) {
+            serialPrefixSum(ints, 0, length, 0);
+            return;
+        }
+        final long[] blockSums = this.blockSums;
+        pool.invoke(new Blocks(0, blocks - 1, block -> {
+            int sum = 0;
+            for (int i = blockStart(length, blocks, block), end = blockStart(length, blocks, block + 1); i < end; i++) {
+                sum += ints[i];
+            }
+            blockSums[block] = sum;
+        }));
+        toBlockOffsets(blocks);
+        //int overflows wrap around exactly as they would in a serial scan
+        pool.invoke(new Blocks(0, blocks, block ->
+                serialPrefixSum(ints, blockStart(length, blocks, block), blockStart(length, blocks, block + 1), (int) blockSums[block])));
+    }
+
+    private interface BlockAction {
+
+        void run(int block);
+    }
+
+    /**
+     * Runs {@link BlockAction} on the blocks [from, to), splitting the range in halves.
+     */
+    private static final class Blocks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final BlockAction action;
+
+        Blocks(int from, int to, BlockAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    action.run(from);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Blocks(from, middle, action), new Blocks(middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi threaded sorting of {@code int[]} and {@code long[]}: {@code Arrays::parallelSort} against the
+ * parallel {@link RadixSort}, both running on a pool of {@code threads} workers.
+ * <p>
+ * {@code Arrays::parallelSort} allocates a buffer as big as the array on each call, while {@link RadixSort}
+ * reuses its own: {@link GCProfiler} shows the difference.
+ * <p>
+ * NOTE: {@code Arrays::parallelSort} forks its tasks on the pool of the calling worker, but it sizes them
+ * on the common pool parallelism; as in {@link PrimitiveSortBenchmark} the results include the copy of the unsorted keys.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ParallelSortBenchmark {
+
+    @Param({"262144", "2097152", "16777216"})
+    private int size;
+    @Param({"random", "sorted", "fewUnique"})
+    private PrimitiveSortBenchmark.Distribution distribution;
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+    private long[] unsortedLongs;
+    private int[] unsortedInts;
+    private long[] longs;
+    private int[] ints;
+    private ForkJoinPool pool;
+    private RadixSort radixSort;
+
+    @Setup
+    public void init() {
+        unsortedLongs = distribution.keys(size);
+        unsortedInts = PrimitiveSortBenchmark.Distribution.toInts(unsortedLongs);
+        longs = new long[size];
+        ints = new int[size];
+        pool = new ForkJoinPool(threads);
+        radixSort = new RadixSort(pool);
+        //let the scratch buffers grow before measuring
+        radixSort.sort(unsortedLongs.clone());
+        radixSort.sort(unsortedInts.clone());
+    }
+
+    @TearDown
+    public void release() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] parallelSortInts(BytesCounter processed) {
+        System.arraycopy(unsortedInts, 0, ints, 0, size);
+        pool.submit(() -> Arrays.parallelSort(ints)).join();
+        processed.bytes += (long) size * Integer.BYTES;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] parallelRadixSortInts(BytesCounter processed) {
+        System.arraycopy(unsortedInts, 0, ints, 0, size);
+        radixSort.sort(ints);
+        processed.bytes += (long) size * Integer.BYTES;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] parallelSortLongs(BytesCounter processed) {
+        System.arraycopy(unsortedLongs, 0, longs, 0, size);
+        pool.submit(() -> Arrays.parallelSort(longs)).join();
+        processed.bytes += (long) size * Long.BYTES;
+        return longs;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] parallelRadixSortLongs(BytesCounter processed) {
+        System.arraycopy(unsortedLongs, 0, longs, 0, size);
+        radixSort.sort(longs);
+        processed.bytes += (long) size * Long.BYTES;
+        return longs;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ParallelSortBenchmark.class, GCProfiler.class);
+    }
+
+}
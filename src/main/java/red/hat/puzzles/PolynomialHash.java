@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import java.util.Arrays;
+
+/**
+ * Drop-in replacement of {@link Arrays#hashCode(byte[])}: same result, without its serial dependency chain.
+ * <p>
+ * {@code Arrays::hashCode} is {@code h = 31 * h + a[i]}, ie a multiply and an add per element that can't start
+ * before the previous ones are done.
+ * Given that {@code hash = 31^n + sum(a[i] * 31^(n - 1 - i))} the elements can be split in 8 independent Horner chains
+ * (one per {@code i % 8}) that multiply by {@code 31^8} and are weighted by {@code 31^(7 - i % 8)} only at the end:
+ * the chains are isomorphic operations on adjacent loads, ie what unrolling and SuperWord like most.
+ */
+public final class PolynomialHash {
+
+    private static final int P1 = 31;
+    private static final int P2 = P1 * P1;
+    private static final int P3 = P2 * P1;
+    private static final int P4 = P3 * P1;
+    private static final int P5 = P4 * P1;
+    private static final int P6 = P5 * P1;
+    private static final int P7 = P6 * P1;
+    private static final int P8 = P7 * P1;
+
+    private PolynomialHash() {
+    }
+
+    public static int hashCode(byte[] a) {
+        if (a == null) {
+            return 0;
+        }
+        int h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0, h5 = 0, h6 = 0;
+        //the initial 1 of Arrays::hashCode: weighted 31^0, it will be multiplied by 31^(8 * blocks) as expected
+        int h7 = 1;
+        final int wideLength = a.length & ~7;
+        int i = 0;
+        for (; i < wideLength; i += 8) {
+            h0 = h0 * P8 + a[i];
+            h1 = h1 * P8 + a[i + 1];
+            h2 = h2 * P8 + a[i + 2];
+            h3 = h3 * P8 + a[i + 3];
+            h4 = h4 * P8 + a[i + 4];
+            h5 = h5 * P8 + a[i + 5];
+            h6 = h6 * P8 + a[i + 6];
+            h7 = h7 * P8 + a[i + 7];
+        }
+        //the hash of the first wideLength bytes
+        int h = h0 * P7 + h1 * P6 + h2 * P5 + h3 * P4 + h4 * P3 + h5 * P2 + h6 * P1 + h7;
+        for (; i < a.length; i++) {
+            h = P1 * h + a[i];
+        }
+        return h;
+    }
+}
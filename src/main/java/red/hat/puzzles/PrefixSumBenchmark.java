@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In place inclusive prefix sums of {@code long[]} and {@code int[]}: a serial loop, {@code Arrays::parallelPrefix}
+ * and the blocked 2 passes {@link ParallelPrefixSum}, both running on a pool of {@code threads} workers.
+ * <p>
+ * A serial scan is a single dependency chain already bound by the memory bandwidth on multi-megabyte arrays:
+ * the parallel ones trade it with an additional read of the array.
+ * <p>
+ * NOTE: {@code Arrays::parallelPrefix} forks its tasks on the pool of the calling worker, but it sizes them
+ * on the common pool parallelism; the serial loops don't care about {@code threads}.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class PrefixSumBenchmark {
+
+    @Param({"262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    @Param({"1", "2", "4", "8", "16"})
+    private int threads;
+    private long[] longBytes;
+    private int[] intBytes;
+    private ForkJoinPool pool;
+    private ParallelPrefixSum prefixSum;
+
+    @Setup
+    public void init() {
+        //the sums keep growing (and wrapping around) on each invocation, but it doesn't change the work to do
+        longBytes = new long[size / Long.BYTES];
+        intBytes = new int[size / Integer.BYTES];
+        Arrays.fill(longBytes, 1);
+        Arrays.fill(intBytes, 1);
+        pool = new ForkJoinPool(threads);
+        prefixSum = new ParallelPrefixSum(pool);
+    }
+
+    @TearDown
+    public void release() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] serialLongs(BytesCounter processed) {
+        ParallelPrefixSum.serialPrefixSum(longBytes, 0, longBytes.length, 0);
+        processed.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] parallelPrefixLongs(BytesCounter processed) {
+        pool.submit(() -> Arrays.parallelPrefix(longBytes, Long::sum)).join();
+        processed.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] blockedLongs(BytesCounter processed) {
+        prefixSum.prefixSum(longBytes);
+        processed.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] serialInts(BytesCounter processed) {
+        ParallelPrefixSum.serialPrefixSum(intBytes, 0, intBytes.length, 0);
+        processed.bytes += size;
+        return intBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] parallelPrefixInts(BytesCounter processed) {
+        pool.submit(() -> Arrays.parallelPrefix(intBytes, Integer::sum)).join();
+        processed.bytes += size;
+        return intBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] blockedInts(BytesCounter processed) {
+        prefixSum.prefixSum(intBytes);
+        processed.bytes += size;
+        return intBytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(PrefixSumBenchmark.class);
+    }
+
+}
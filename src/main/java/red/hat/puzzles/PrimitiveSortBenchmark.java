@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single threaded sorting of {@code int[]} and {@code long[]}: {@code Arrays::sort} against {@link RadixSort}.
+ * See {@link ParallelSortBenchmark} for the multi threaded ones.
+ * <p>
+ * NOTE: each sort starts by copying the unsorted keys into the array to sort, ie the results include a
+ * {@code System::arraycopy} of the same size.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class PrimitiveSortBenchmark {
+
+    public enum Distribution {
+        random, sorted, fewUnique;
+
+        public long[] keys(int size) {
+            final Random random = new Random(42);
+            final long[] keys = new long[size];
+            switch (this) {
+                case random:
+                    for (int i = 0; i < size; i++) {
+                        keys[i] = random.nextLong();
+                    }
+                    break;
+                case sorted:
+                    for (int i = 0; i < size; i++) {
+                        keys[i] = i;
+                    }
+                    break;
+                case fewUnique:
+                    final long[] unique = new long[16];
+                    for (int i = 0; i < unique.length; i++) {
+                        unique[i] = random.nextLong();
+                    }
+                    for (int i = 0; i < size; i++) {
+                        keys[i] = unique[random.nextInt(unique.length)];
+                    }
+                    break;
+            }
+            return keys;
+        }
+
+        public static int[] toInts(long[] keys) {
+            final int[] ints = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                ints[i] = (int) keys[i];
+            }
+            return ints;
+        }
+    }
+
+    @Param({"4096", "262144", "2097152", "16777216"})
+    private int size;
+    @Param({"random", "sorted", "fewUnique"})
+    private Distribution distribution;
+    private long[] unsortedLongs;
+    private int[] unsortedInts;
+    private long[] longs;
+    private int[] ints;
+    private RadixSort radixSort;
+
+    @Setup
+    public void init() {
+        unsortedLongs = distribution.keys(size);
+        unsortedInts = Distribution.toInts(unsortedLongs);
+        longs = new long[size];
+        ints = new int[size];
+        radixSort = new RadixSort();
+        //let the scratch buffers grow before measuring
+        radixSort.sort(unsortedLongs.clone());
+        radixSort.sort(unsortedInts.clone());
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] sortInts(BytesCounter processed) {
+        System.arraycopy(unsortedInts, 0, ints, 0, size);
+        Arrays.sort(ints);
+        processed.bytes += (long) size * Integer.BYTES;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] radixSortInts(BytesCounter processed) {
+        System.arraycopy(unsortedInts, 0, ints, 0, size);
+        radixSort.sort(ints);
+        processed.bytes += (long) size * Integer.BYTES;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] sortLongs(BytesCounter processed) {
+        System.arraycopy(unsortedLongs, 0, longs, 0, size);
+        Arrays.sort(longs);
+        processed.bytes += (long) size * Long.BYTES;
+        return longs;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] radixSortLongs(BytesCounter processed) {
+        System.arraycopy(unsortedLongs, 0, longs, 0, size);
+        radixSort.sort(longs);
+        processed.bytes += (long) size * Long.BYTES;
+        return longs;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(PrimitiveSortBenchmark.class, GCProfiler.class);
+    }
+
+}
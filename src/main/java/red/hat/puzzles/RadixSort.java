@@ -0,0 +1,335 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * LSD radix sort of {@code int[]} and {@code long[]} on 8 bits digits, ping-ponging between the array and
+ * a scratch buffer which is reused across calls (ie it allocates only when it has to grow).
+ * <p>
+ * The passes whose digit is the same for all the keys are skipped: sorted or few-unique keys usually need
+ * fewer passes. If an odd number of passes is performed the result is copied back into the array.
+ * <p>
+ * Without a pool the histograms of all the passes are computed with a single read of the array.
+ * With a pool the range is split in one chunk per worker and each pass is made of a parallel count,
+ * a (serial) prefix sum over digits and chunks and a parallel scatter: it is still stable, because
+ * each chunk scatters its keys after the ones of the previous chunks with the same digit.
+ * <p>
+ * NOTE: instances aren't thread safe, because of the scratch buffers.
+ */
+public final class RadixSort {
+
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    private final ForkJoinPool pool;
+    private final int chunks;
+    //[pass * RADIX + digit] when serial, [chunk * RADIX + digit] when parallel
+    private final int[] counts;
+    private int[] intScratch = new int[0];
+    private long[] longScratch = new long[0];
+
+    public RadixSort() {
+        this.pool = null;
+        this.chunks = 1;
+        this.counts = new int[Long.BYTES * RADIX];
+    }
+
+    /**
+     * @param pool the pool running the passes, using one chunk of keys per worker
+     */
+    public RadixSort(ForkJoinPool pool) {
+        this.pool = pool;
+        this.chunks = pool.getParallelism();
+        this.counts = new int[Math.max(Long.BYTES, chunks) * RADIX];
+    }
+
+    public void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public void sort(int[] a, int from, int to) {
+        final int length = to - from;
+        if (length < 2) {
+            return;
+        }
+        if (intScratch.length < length) {
+            intScratch = new int[length];
+        }
+        if (pool == null) {
+            serialSort(a, from, length, intScratch);
+        } else {
+            parallelSort(a, from, length, intScratch);
+        }
+    }
+
+    public void sort(long[] a, int from, int to) {
+        final int length = to - from;
+        if (length < 2) {
+            return;
+        }
+        if (longScratch.length < length) {
+            longScratch = new long[length];
+        }
+        if (pool == null) {
+            serialSort(a, from, length, longScratch);
+        } else {
+            parallelSort(a, from, length, longScratch);
+        }
+    }
+
+    //the sign bit is flipped to make the signed order the unsigned one: only the most significant digit is affected
+    private static int digit(int key, int shift) {
+        return ((key ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK;
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK;
+    }
+
+    /**
+     * Turns {@code counts[offset, offset + RADIX)} into the exclusive prefix sum starting from {@code start}.
+     */
+    private static void toOffsets(int[] counts, int offset, int start) {
+        int sum = start;
+        for (int i = offset, end = offset + RADIX; i < end; i++) {
+            final int count = counts[i];
+            counts[i] = sum;
+            sum += count;
+        }
+    }
+
+    private void serialSort(int[] a, int from, int length, int[] scratch) {
+        final int[] counts = this.counts;
+        Arrays.fill(counts, 0, Integer.BYTES * RADIX, 0);
+        for (int i = from, end = from + length; i < end; i++) {
+            final int key = a[i];
+            counts[digit(key, 0)]++;
+            counts[RADIX + digit(key, 8)]++;
+            counts[2 * RADIX + digit(key, 16)]++;
+            counts[3 * RADIX + digit(key, 24)]++;
+        }
+        int[] src = a;
+        int srcFrom = from;
+        int[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            final int shift = pass * DIGIT_BITS;
+            final int offset = pass * RADIX;
+            if (counts[offset + digit(a[from], shift)] == length) {
+                continue;
+            }
+            toOffsets(counts, offset, dstFrom);
+            for (int i = srcFrom, end = srcFrom + length; i < end; i++) {
+                final int key = src[i];
+                dst[counts[offset + digit(key, shift)]++] = key;
+            }
+            final int[] tmp = src;
+            src = dst;
+            dst = tmp;
+            final int tmpFrom = srcFrom;
+            srcFrom = dstFrom;
+            dstFrom = tmpFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, length);
+        }
+    }
+
+    private void serialSort(long[] a, int from, int length, long[] scratch) {
+        final int[] counts = this.counts;
+        Arrays.fill(counts, 0, Long.BYTES * RADIX, 0);
+        for (int i = from, end = from + length; i < end; i++) {
+            final long key = a[i];
+            counts[digit(key, 0)]++;
+            counts[RADIX + digit(key, 8)]++;
+            counts[2 * RADIX + digit(key, 16)]++;
+            counts[3 * RADIX + digit(key, 24)]++;
+            counts[4 * RADIX + digit(key, 32)]++;
+            counts[5 * RADIX + digit(key, 40)]++;
+            counts[6 * RADIX + digit(key, 48)]++;
+            counts[7 * RADIX + digit(key, 56)]++;
+        }
+        long[] src = a;
+        int srcFrom = from;
+        long[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            final int shift = pass * DIGIT_BITS;
+            final int offset = pass * RADIX;
+            if (counts[offset + digit(a[from], shift)] == length) {
+                continue;
+            }
+            toOffsets(counts, offset, dstFrom);
+            for (int i = srcFrom, end = srcFrom + length; i < end; i++) {
+                final long key = src[i];
+                dst[counts[offset + digit(key, shift)]++] = key;
+            }
+            final long[] tmp = src;
+            src = dst;
+            dst = tmp;
+            final int tmpFrom = srcFrom;
+            srcFrom = dstFrom;
+            dstFrom = tmpFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, length);
+        }
+    }
+
+    private int chunkStart(int length, int chunk) {
+        return (int) ((long) length * chunk / chunks);
+    }
+
+    /**
+     * Turns the per chunk counts into the offsets each chunk scatters its keys from.
+     *
+     * @return {@code false} if all the keys have the same digit, ie the pass can be skipped
+     */
+    private boolean toChunkOffsets(int length, int start) {
+        final int[] counts = this.counts;
+        int sum = start;
+        for (int digit = 0; digit < RADIX; digit++) {
+            final int digitStart = sum;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                final int index = chunk * RADIX + digit;
+                final int count = counts[index];
+                counts[index] = sum;
+                sum += count;
+            }
+            if (sum - digitStart == length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parallelSort(int[] a, int from, int length, int[] scratch) {
+        final int[] counts = this.counts;
+        int[] src = a;
+        int srcFrom = from;
+        int[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            final int shift = pass * DIGIT_BITS;
+            final int[] passSrc = src;
+            final int passSrcFrom = srcFrom;
+            forEachChunk(chunk -> {
+                final int offset = chunk * RADIX;
+                Arrays.fill(counts, offset, offset + RADIX, 0);
+                for (int i = passSrcFrom + chunkStart(length, chunk), end = passSrcFrom + chunkStart(length, chunk + 1); i < end; i++) {
+                    counts[offset + digit(passSrc[i], shift)]++;
+                }
+            });
+            if (!toChunkOffsets(length, dstFrom)) {
+                continue;
+            }
+            final int[] passDst = dst;
+            forEachChunk(chunk -> {
+                final int offset = chunk * RADIX;
+                for (int i = passSrcFrom + chunkStart(length, chunk), end = passSrcFrom + chunkStart(length, chunk + 1); i < end; i++) {
+                    final int key = passSrc[i];
+                    passDst[counts[offset + digit(key, shift)]++] = key;
+                }
+            });
+            src = dst;
+            dst = passSrc;
+            srcFrom = dstFrom;
+            dstFrom = passSrcFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, length);
+        }
+    }
+
+    private void parallelSort(long[] a, int from, int length, long[] scratch) {
+        final int[] counts = this.counts;
+        long[] src = a;
+        int srcFrom = from;
+        long[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            final int shift = pass * DIGIT_BITS;
+            final long[] passSrc = src;
+            final int passSrcFrom = srcFrom;
+            forEachChunk(chunk -> {
+                final int offset = chunk * RADIX;
+                Arrays.fill(counts, offset, offset + RADIX, 0);
+                for (int i = passSrcFrom + chunkStart(length, chunk), end = passSrcFrom + chunkStart(length, chunk + 1); i < end; i++) {
+                    counts[offset + digit(passSrc[i], shift)]++;
+                }
+            });
+            if (!toChunkOffsets(length, dstFrom)) {
+                continue;
+            }
+            final long[] passDst = dst;
+            forEachChunk(chunk -> {
+                final int offset = chunk * RADIX;
+                for (int i = passSrcFrom + chunkStart(length, chunk), end = passSrcFrom + chunkStart(length, chunk + 1); i < end; i++) {
+                    final long key = passSrc[i];
+                    passDst[counts[offset + digit(key, shift)]++] = key;
+                }
+            });
+            src = dst;
+            dst = passSrc;
+            srcFrom = dstFrom;
+            dstFrom = passSrcFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, length);
+        }
+    }
+
+    private void forEachChunk(IntConsumer action) {
+        pool.invoke(new Chunks(0, chunks, action));
+    }
+
+    private static final class Chunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        Chunks(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new Chunks(from, middle, action), new Chunks(middle, to, action));
+        }
+    }
+}
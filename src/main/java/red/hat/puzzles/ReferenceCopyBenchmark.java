@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ArrayCopyBenchmark} counterpart for {@code Object[]}: each copied reference pays the GC barriers
+ * (card marking of the destination, SATB or load barriers of the source, depending on the collector)
+ * and, if the destination component type isn't a super type of the source one, a type check too.
+ * <p>
+ * NOTE: the arrays point to {@link #DISTINCT_VALUES} objects allocated (and likely promoted) before the
+ * measurement; the length of the arrays depends on the reference size, ie on -XX:-UseCompressedOops.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ReferenceCopyBenchmark {
+
+    private static final int DISTINCT_VALUES = 1024;
+    //how far the overlapping in-place moves shift the content
+    private static final int MOVE_DISTANCE = 2;
+
+    @Param({"256", "4096", "32768", "262144", "2097152", "16777216", "67108864"})
+    private int size;
+    private int length;
+    private Object[] src;
+    private Object[] dst;
+    private Number[] numbers;
+
+    @Setup
+    public void init() {
+        length = size / Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+        final Long[] values = new Long[DISTINCT_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            //out of the Long::valueOf cache range
+            values[i] = Long.valueOf(Integer.MAX_VALUE + (long) i);
+        }
+        src = new Object[length];
+        for (int i = 0; i < length; i++) {
+            src[i] = values[i % DISTINCT_VALUES];
+        }
+        dst = new Object[length];
+        numbers = new Number[length];
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] arraycopy(BytesCounter copied) {
+        //same component type: the oop_disjoint_arraycopy stub, wrapped by the GC barriers
+        System.arraycopy(src, 0, dst, 0, length);
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Number[] arraycopyChecked(BytesCounter copied) {
+        //Object[] into Number[]: the checkcast_arraycopy stub type checks each element
+        System.arraycopy(src, 0, numbers, 0, length);
+        copied.bytes += size;
+        return numbers;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] copyOf(BytesCounter copied) {
+        //a young array: some collectors can skip the barriers of its stores
+        final Object[] copy = Arrays.copyOf(src, length);
+        copied.bytes += size;
+        return copy;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] handrolled(BytesCounter copied) {
+        //a barrier per store, but no stub call
+        for (int i = 0; i < length; i++) {
+            dst[i] = src[i];
+        }
+        copied.bytes += size;
+        return dst;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] moveForward(BytesCounter copied) {
+        final int moved = length - MOVE_DISTANCE;
+        System.arraycopy(src, 0, src, MOVE_DISTANCE, moved);
+        copied.bytes += (long) moved * Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+        return src;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] moveBackward(BytesCounter copied) {
+        final int moved = length - MOVE_DISTANCE;
+        System.arraycopy(src, MOVE_DISTANCE, src, 0, moved);
+        copied.bytes += (long) moved * Unsafe.ARRAY_OBJECT_INDEX_SCALE;
+        return src;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ReferenceCopyBenchmark.class);
+    }
+
+}
@@ -0,0 +1,174 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hex and Base64 codecs: the usual {@code String} round trips against {@link HexCodec} and {@link Base64Codec}
+ * writing into preallocated arrays; {@link java.util.Base64} is measured with both its {@code String} and {@code byte[]} APIs.
+ * <p>
+ * It runs with {@link GCProfiler} too, to show what the {@code String} round trips allocate.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TextCodecBenchmark {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Param({"16", "256", "4096", "32768", "262144"})
+    private int size;
+    private byte[] bytes;
+    private byte[] decoded;
+    private byte[] hex;
+    private String hexString;
+    private byte[] base64;
+    private String base64String;
+    private Base64.Encoder encoder;
+    private Base64.Decoder decoder;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        decoded = new byte[size];
+        hex = new byte[size * 2];
+        HexCodec.encode(bytes, 0, size, hex, 0);
+        hexString = new String(hex, StandardCharsets.US_ASCII);
+        encoder = Base64.getEncoder();
+        decoder = Base64.getDecoder();
+        base64 = new byte[Base64Codec.encodedLength(size)];
+        Base64Codec.encode(bytes, 0, size, base64, 0);
+        base64String = new String(base64, StandardCharsets.US_ASCII);
+        if (!base64String.equals(encoder.encodeToString(bytes))) {
+            throw new IllegalStateException("Base64Codec doesn't agree with java.util.Base64");
+        }
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public String hexEncodeString(BytesCounter processed) {
+        final StringBuilder builder = new StringBuilder(size * 2);
+        for (byte b : bytes) {
+            builder.append(HEX_DIGITS[(b >>> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        processed.bytes += size;
+        return builder.toString();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] hexEncodeTable(BytesCounter processed) {
+        HexCodec.encode(bytes, 0, size, hex, 0);
+        processed.bytes += size;
+        return hex;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] hexEncodeSwar(BytesCounter processed) {
+        HexCodec.encodeSwar(bytes, 0, size, hex, 0);
+        processed.bytes += size;
+        return hex;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] hexDecodeString(BytesCounter processed) {
+        final byte[] decoded = new byte[hexString.length() / 2];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = (byte) (Character.digit(hexString.charAt(2 * i), 16) << 4 | Character.digit(hexString.charAt(2 * i + 1), 16));
+        }
+        processed.bytes += size;
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] hexDecodeTable(BytesCounter processed) {
+        HexCodec.decode(hex, 0, hex.length, decoded, 0);
+        processed.bytes += size;
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public String base64EncodeString(BytesCounter processed) {
+        final String encoded = encoder.encodeToString(bytes);
+        processed.bytes += size;
+        return encoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] base64EncodeJdk(BytesCounter processed) {
+        //no allocations here: recent JDKs intrinsify Base64.Encoder::encodeBlock on x86
+        encoder.encode(bytes, base64);
+        processed.bytes += size;
+        return base64;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] base64EncodeTable(BytesCounter processed) {
+        Base64Codec.encode(bytes, 0, size, base64, 0);
+        processed.bytes += size;
+        return base64;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] base64DecodeString(BytesCounter processed) {
+        final byte[] decoded = decoder.decode(base64String);
+        processed.bytes += size;
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] base64DecodeJdk(BytesCounter processed) {
+        decoder.decode(base64, decoded);
+        processed.bytes += size;
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] base64DecodeTable(BytesCounter processed) {
+        Base64Codec.decode(base64, 0, base64.length, decoded, 0);
+        processed.bytes += size;
+        return decoded;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(TextCodecBenchmark.class, GCProfiler.class);
+    }
+
+}
@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ArrayFillBenchmark} {@code fill}/{@code handrolled} pair for the other primitive array types and for
+ * {@code Object[]}, always filling {@code size} bytes.
+ * <p>
+ * The primitive loops get the same treatment of {@code byte[]} and {@code long[]} (fill stubs up to 32 bits
+ * elements, if -XX:+OptimizeFill, SuperWord otherwise), while each reference store pays the GC barriers:
+ * storing {@code null} lets most of them bail out early, storing an object doesn't, even less if the array is
+ * old and the object young. Run it with -XX:+UseParallelGC, -XX:+UseG1GC, etc to compare them.
+ * <p>
+ * NOTE: it stops at 64 MB, because all the arrays are allocated together; the {@code Object[]} length depends on
+ * the reference size, ie on -XX:-UseCompressedOops.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class TypedFillBenchmark {
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864"})
+    private int size;
+    private boolean[] booleans;
+    private short[] shorts;
+    private char[] chars;
+    private int[] ints;
+    private float[] floats;
+    private double[] doubles;
+    private Object[] objects;
+    private boolean booleanValue;
+    private short shortValue;
+    private char charValue;
+    private int intValue;
+    private float floatValue;
+    private double doubleValue;
+    private Object objectValue;
+
+    @Setup
+    public void init() {
+        booleans = new boolean[size];
+        shorts = new short[size / Short.BYTES];
+        chars = new char[size / Character.BYTES];
+        ints = new int[size / Integer.BYTES];
+        floats = new float[size / Float.BYTES];
+        doubles = new double[size / Double.BYTES];
+        objects = new Object[size / Unsafe.ARRAY_OBJECT_INDEX_SCALE];
+        booleanValue = true;
+        shortValue = 1;
+        charValue = 1;
+        intValue = 1;
+        floatValue = 1;
+        doubleValue = 1;
+        objectValue = new Object();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean[] fillBoolean(BytesCounter filled) {
+        Arrays.fill(booleans, booleanValue);
+        filled.bytes += size;
+        return booleans;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean[] handrolledBoolean(BytesCounter filled) {
+        for (int i = 0; i < booleans.length; i++) {
+            booleans[i] = booleanValue;
+        }
+        filled.bytes += size;
+        return booleans;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public short[] fillShort(BytesCounter filled) {
+        Arrays.fill(shorts, shortValue);
+        filled.bytes += size;
+        return shorts;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public short[] handrolledShort(BytesCounter filled) {
+        for (int i = 0; i < shorts.length; i++) {
+            shorts[i] = shortValue;
+        }
+        filled.bytes += size;
+        return shorts;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public char[] fillChar(BytesCounter filled) {
+        Arrays.fill(chars, charValue);
+        filled.bytes += size;
+        return chars;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public char[] handrolledChar(BytesCounter filled) {
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charValue;
+        }
+        filled.bytes += size;
+        return chars;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] fillInt(BytesCounter filled) {
+        Arrays.fill(ints, intValue);
+        filled.bytes += size;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int[] handrolledInt(BytesCounter filled) {
+        for (int i = 0; i < ints.length; i++) {
+            ints[i] = intValue;
+        }
+        filled.bytes += size;
+        return ints;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public float[] fillFloat(BytesCounter filled) {
+        Arrays.fill(floats, floatValue);
+        filled.bytes += size;
+        return floats;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public float[] handrolledFloat(BytesCounter filled) {
+        for (int i = 0; i < floats.length; i++) {
+            floats[i] = floatValue;
+        }
+        filled.bytes += size;
+        return floats;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public double[] fillDouble(BytesCounter filled) {
+        Arrays.fill(doubles, doubleValue);
+        filled.bytes += size;
+        return doubles;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public double[] handrolledDouble(BytesCounter filled) {
+        for (int i = 0; i < doubles.length; i++) {
+            doubles[i] = doubleValue;
+        }
+        filled.bytes += size;
+        return doubles;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] fillNull(BytesCounter filled) {
+        Arrays.fill(objects, null);
+        filled.bytes += size;
+        return objects;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] handrolledNull(BytesCounter filled) {
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = null;
+        }
+        filled.bytes += size;
+        return objects;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] fillObject(BytesCounter filled) {
+        Arrays.fill(objects, objectValue);
+        filled.bytes += size;
+        return objects;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public Object[] handrolledObject(BytesCounter filled) {
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = objectValue;
+        }
+        filled.bytes += size;
+        return objects;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(TypedFillBenchmark.class);
+    }
+
+}
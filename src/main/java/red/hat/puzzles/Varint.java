@@ -0,0 +1,205 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import sun.misc.Unsafe;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Allocation free varint (LEB128, as in protobuf) and ZigZag codec.
+ * <p>
+ * The SWAR decoder reads 8 bytes at once: the first byte without the continuation bit gives the length and
+ * the 7 bits groups are compacted with 3 mask-shift-or steps, without any per byte branch.
+ * The SWAR encoder does the opposite, with a single 8 bytes store.
+ * Values longer than 8 bytes (ie >= 2^56) or too close to the end of the array fall back to the byte by byte loops.
+ * <p>
+ * NOTE: the decoders expect minimal encodings (as the ones written here), because the number of bytes read
+ * is computed out of the decoded value.
+ */
+public final class Varint {
+
+    public static final int MAX_VARLONG_BYTES = 10;
+
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+    private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+    private Varint() {
+    }
+
+    public static long encodeZigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long decodeZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return how many bytes {@code value} needs once encoded, from 1 to {@link #MAX_VARLONG_BYTES}
+     */
+    public static int varLongSize(long value) {
+        return (63 - Long.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    /**
+     * @return the offset after the last written byte
+     */
+    public static int writeVarLong(byte[] dst, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            dst[offset++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        dst[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Byte by byte decoding: use {@link #varLongSize} on the result to know how many bytes have been read.
+     */
+    public static long readVarLong(byte[] src, int offset) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = src[offset++];
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    /**
+     * SWAR decoding: use {@link #varLongSize} on the result to know how many bytes have been read.
+     */
+    public static long readVarLongSwar(byte[] src, int offset) {
+        if (offset < 0 || offset > src.length - Long.BYTES) {
+            return readVarLong(src, offset);
+        }
+        long word = UNSAFE.getLong(src, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + offset);
+        if (BIG_ENDIAN) {
+            word = Long.reverseBytes(word);
+        }
+        final long stopBits = ~word & CONTINUATION_BITS;
+        if (stopBits == 0) {
+            return readVarLong(src, offset);
+        }
+        //all the bits up to the last byte (included) of the varint: stopBits lowest bit is the MSB of the last byte
+        final long mask = stopBits ^ (stopBits - 1);
+        return compact(word & mask);
+    }
+
+    /**
+     * SWAR encoding: the 7 bits groups are spread on 8 bytes and written with a single 8 bytes store,
+     * regardless the real length of the varint: the bytes after it (up to 8 bytes from {@code offset}) are overwritten.
+     *
+     * @return the offset after the last written byte
+     */
+    public static int writeVarLongSwar(byte[] dst, int offset, long value) {
+        final int size = varLongSize(value);
+        if (size > Long.BYTES || offset < 0 || offset > dst.length - Long.BYTES) {
+            return writeVarLong(dst, offset, value);
+        }
+        //the continuation bits of all the bytes but the last one
+        long word = spread(value) | (CONTINUATION_BITS & ((1L << ((size - 1) << 3)) - 1));
+        if (BIG_ENDIAN) {
+            word = Long.reverseBytes(word);
+        }
+        UNSAFE.putLong(dst, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, word);
+        return offset + size;
+    }
+
+    /**
+     * Compacts the 7 bits payloads of 8 little endian bytes into 56 contiguous bits.
+     */
+    private static long compact(long word) {
+        word = (word & 0x007F007F007F007FL) | ((word & 0x7F007F007F007F00L) >>> 1);
+        word = (word & 0x00003FFF00003FFFL) | ((word & 0x3FFF00003FFF0000L) >>> 2);
+        return (word & 0x000000000FFFFFFFL) | ((word & 0x0FFFFFFF00000000L) >>> 4);
+    }
+
+    /**
+     * The inverse of {@link #compact}: spreads the lower 56 bits of {@code value} in 7 bits groups, one per byte.
+     */
+    private static long spread(long value) {
+        value = (value & 0x000000000FFFFFFFL) | ((value & 0x00FFFFFFF0000000L) << 4);
+        value = (value & 0x00003FFF00003FFFL) | ((value & 0x0FFFC0000FFFC000L) << 2);
+        return (value & 0x007F007F007F007FL) | ((value & 0x3F803F803F803F80L) << 1);
+    }
+
+    public static void writeVarLong(ByteBuffer dst, long value) {
+        while ((value & ~0x7FL) != 0) {
+            dst.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        dst.put((byte) value);
+    }
+
+    public static long readVarLong(ByteBuffer src) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = src.get();
+            value |= (b & 0x7FL) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    /**
+     * ZigZag + varint encoding of {@code values[from, to)}.
+     *
+     * @return the offset after the last written byte
+     */
+    public static int encodeZigZag(long[] values, int from, int to, byte[] dst, int offset) {
+        for (int i = from; i < to; i++) {
+            offset = writeVarLongSwar(dst, offset, encodeZigZag(values[i]));
+        }
+        return offset;
+    }
+
+    /**
+     * Varint + ZigZag decoding into {@code values[from, to)}.
+     *
+     * @return the offset after the last read byte
+     */
+    public static int decodeZigZag(byte[] src, int offset, long[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final long value = readVarLongSwar(src, offset);
+            offset += varLongSize(value);
+            values[i] = decodeZigZag(value);
+        }
+        return offset;
+    }
+
+    public static void encodeZigZag(long[] values, int from, int to, ByteBuffer dst) {
+        for (int i = from; i < to; i++) {
+            writeVarLong(dst, encodeZigZag(values[i]));
+        }
+    }
+
+    public static void decodeZigZag(ByteBuffer src, long[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] = decodeZigZag(readVarLong(src));
+        }
+    }
+}
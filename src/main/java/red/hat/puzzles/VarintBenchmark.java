@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZigZag + varint batches of {@code long}s: the byte by byte loops against the {@link Varint} SWAR ones.
+ * <p>
+ * With a fixed {@code encodedBytes} each value encodes in exactly that many bytes and the byte by byte loops are
+ * perfectly predicted, while {@code mixed} (from 1 to 9 bytes, at random) shows the branch misses cost that SWAR
+ * is supposed to save.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class VarintBenchmark {
+
+    @Param({"4096", "262144"})
+    private int count;
+    @Param({"1", "2", "4", "8", "mixed"})
+    private String encodedBytes;
+    private long[] values;
+    private long[] decoded;
+    private byte[] bytes;
+    private ByteBuffer directBytes;
+    private int encodedLength;
+
+    @Setup
+    public void init() {
+        final Random random = new Random(42);
+        values = new long[count];
+        decoded = new long[count];
+        for (int i = 0; i < count; i++) {
+            final int length = "mixed".equals(encodedBytes) ? 1 + random.nextInt(9) : Integer.parseInt(encodedBytes);
+            //the ZigZag value is picked in [2^(7 * (length - 1)), 2^(7 * length)), ie it encodes in exactly length bytes
+            final long min = length == 1 ? 0 : 1L << (7 * (length - 1));
+            values[i] = Varint.decodeZigZag(min | (random.nextLong() & ((1L << (7 * length)) - 1)));
+        }
+        bytes = new byte[count * Varint.MAX_VARLONG_BYTES];
+        directBytes = ByteBuffer.allocateDirect(bytes.length);
+        encodedLength = Varint.encodeZigZag(values, 0, count, bytes, 0);
+        Varint.encodeZigZag(values, 0, count, directBytes);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] encodeNaive(BytesCounter processed) {
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            offset = Varint.writeVarLong(bytes, offset, Varint.encodeZigZag(values[i]));
+        }
+        processed.bytes += offset;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] encodeSwar(BytesCounter processed) {
+        processed.bytes += Varint.encodeZigZag(values, 0, count, bytes, 0);
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer encodeDirect(BytesCounter processed) {
+        ((Buffer) directBytes).clear();
+        Varint.encodeZigZag(values, 0, count, directBytes);
+        processed.bytes += directBytes.position();
+        return directBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] decodeNaive(BytesCounter processed) {
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            final long value = Varint.readVarLong(bytes, offset);
+            offset += Varint.varLongSize(value);
+            decoded[i] = Varint.decodeZigZag(value);
+        }
+        processed.bytes += offset;
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] decodeSwar(BytesCounter processed) {
+        processed.bytes += Varint.decodeZigZag(bytes, 0, decoded, 0, count);
+        return decoded;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] decodeDirect(BytesCounter processed) {
+        ((Buffer) directBytes).clear();
+        Varint.decodeZigZag(directBytes, decoded, 0, count);
+        processed.bytes += encodedLength;
+        return decoded;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(VarintBenchmark.class);
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import sun.misc.Unsafe;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Pure Java <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">XXH64</a>:
+ * 4 independent accumulators consume 32 bytes per iteration, hence it is bound by the multipliers throughput
+ * and not by their latency.
+ * <p>
+ * The same {@code Unsafe} reads work for both heap and native memory: {@code base} is {@code null} for the latter.
+ */
+public final class XxHash64 {
+
+    private static final boolean BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    private XxHash64() {
+    }
+
+    public static long hash(byte[] bytes, int offset, int length, long seed) {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException("offset = " + offset + " length = " + length + " bytes = " + bytes.length);
+        }
+        return hash(bytes, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET + offset, length, seed);
+    }
+
+    /**
+     * It hashes the remaining bytes of a direct {@code buffer}, without changing its position.
+     */
+    public static long hash(ByteBuffer buffer, long seed) {
+        return hash(null, ArrayFillBenchmark.address(buffer) + buffer.position(), buffer.remaining(), seed);
+    }
+
+    private static long hash(Object base, long offset, int length, long seed) {
+        final long end = offset + length;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + PRIME64_1 + PRIME64_2;
+            long v2 = seed + PRIME64_2;
+            long v3 = seed;
+            long v4 = seed - PRIME64_1;
+            final long limit = end - 32;
+            do {
+                v1 = round(v1, getLong(base, offset));
+                v2 = round(v2, getLong(base, offset + 8));
+                v3 = round(v3, getLong(base, offset + 16));
+                v4 = round(v4, getLong(base, offset + 24));
+                offset += 32;
+            } while (offset <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + PRIME64_5;
+        }
+        h += length;
+        for (; offset + 8 <= end; offset += 8) {
+            h ^= round(0, getLong(base, offset));
+            h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+        }
+        if (offset + 4 <= end) {
+            h ^= (getInt(base, offset) & 0xFFFFFFFFL) * PRIME64_1;
+            h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+            offset += 4;
+        }
+        for (; offset < end; offset++) {
+            h ^= (UNSAFE.getByte(base, offset) & 0xFFL) * PRIME64_5;
+            h = Long.rotateLeft(h, 11) * PRIME64_1;
+        }
+        h ^= h >>> 33;
+        h *= PRIME64_2;
+        h ^= h >>> 29;
+        h *= PRIME64_3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME64_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME64_1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME64_1 + PRIME64_4;
+    }
+
+    //XXH64 reads little endian values
+    private static long getLong(Object base, long offset) {
+        final long value = UNSAFE.getLong(base, offset);
+        return BIG_ENDIAN ? Long.reverseBytes(value) : value;
+    }
+
+    private static int getInt(Object base, long offset) {
+        final int value = UNSAFE.getInt(base, offset);
+        return BIG_ENDIAN ? Integer.reverseBytes(value) : value;
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Equality and mismatch of the {@link ArrayFillBenchmark} fixtures against a copy with a single different byte:
+ * moving the first difference shows how early each strategy exits and how much the vectorized intrinsic
+ * ({@code ArraysSupport::vectorizedMismatch}) costs to set up.
+ * <p>
+ * NOTE: {@link Arrays#mismatch(byte[], byte[])} is JDK 9, but the only source tree past the JDK 8 one is the JDK 17+ one.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ArrayCompareBenchmark {
+
+    private static final boolean LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    //where the first difference is, as a percentage of size: 100 means no difference at all
+    @Param({"0", "1", "10", "50", "99", "100"})
+    private int differencePercent;
+    private byte[] bytes;
+    private byte[] otherBytes;
+    private long[] longBytes;
+    private long[] otherLongBytes;
+    private int compared;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        otherBytes = new byte[size];
+        longBytes = new long[size / Long.BYTES];
+        otherLongBytes = new long[size / Long.BYTES];
+        final byte b = 1;
+        Arrays.fill(bytes, b);
+        Arrays.fill(otherBytes, b);
+        Arrays.fill(longBytes, b);
+        Arrays.fill(otherLongBytes, b);
+        final int difference = (int) ((long) size * differencePercent / 100);
+        if (difference < size) {
+            otherBytes[difference]++;
+            otherLongBytes[difference / Long.BYTES]++;
+            compared = difference + 1;
+        } else {
+            compared = size;
+        }
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean equals(BytesCounter processed) {
+        final boolean equals = Arrays.equals(bytes, otherBytes);
+        processed.bytes += compared;
+        return equals;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean equalsLong(BytesCounter processed) {
+        final boolean equals = Arrays.equals(longBytes, otherLongBytes);
+        processed.bytes += compared;
+        return equals;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int mismatch(BytesCounter processed) {
+        final int mismatch = Arrays.mismatch(bytes, otherBytes);
+        processed.bytes += compared;
+        return mismatch;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int handrolled(BytesCounter processed) {
+        //the early exit prevents SuperWord to vectorize it
+        int mismatch = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != otherBytes[i]) {
+                mismatch = i;
+                break;
+            }
+        }
+        processed.bytes += compared;
+        return mismatch;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int unsafeWords(BytesCounter processed) {
+        final int mismatch = unsafeMismatch(bytes, otherBytes);
+        processed.bytes += compared;
+        return mismatch;
+    }
+
+    /**
+     * SWAR mismatch: it compares 8 bytes at time and it finds the different byte out of the XOR of the 2 words.
+     */
+    private static int unsafeMismatch(byte[] a, byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        final int wideLength = length & ~(Long.BYTES - 1);
+        int i = 0;
+        for (; i < wideLength; i += Long.BYTES) {
+            final long wa = UNSAFE.getLong(a, Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            final long wb = UNSAFE.getLong(b, Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            if (wa != wb) {
+                final long diff = wa ^ wb;
+                return i + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(diff) : Long.numberOfLeadingZeros(diff)) >>> 3);
+            }
+        }
+        for (; i < length; i++) {
+            if (a[i] != b[i]) {
+                return i;
+            }
+        }
+        return a.length == b.length ? -1 : length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ArrayCompareBenchmark.class);
+    }
+
+}
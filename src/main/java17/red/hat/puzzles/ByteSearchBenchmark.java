@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delimiter search: naive loop vs {@link ByteSearch} SWAR vs {@link VectorArrays#indexOf} explicit SIMD.
+ * <p>
+ * NOTE: it is JDK 17+ only due to the Vector API variant.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+public class ByteSearchBenchmark {
+
+    private static final byte DELIMITER = '\n';
+
+    public enum Match {
+        start, middle, end, missing
+    }
+
+    @Param({"32768", "262144", "2097152", "16777216", "67108864"})
+    private int size;
+    @Param
+    private Match match;
+    private byte[] bytes;
+    private int scanned;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 1);
+        final int index;
+        switch (match) {
+            case start:
+                index = 0;
+                break;
+            case middle:
+                index = size / 2;
+                break;
+            case end:
+                index = size - 1;
+                break;
+            default:
+                index = -1;
+        }
+        if (index >= 0) {
+            bytes[index] = DELIMITER;
+            scanned = index + 1;
+        } else {
+            scanned = size;
+        }
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int naive(BytesCounter processed) {
+        //the early exit prevents SuperWord to vectorize it
+        int index = -1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == DELIMITER) {
+                index = i;
+                break;
+            }
+        }
+        processed.bytes += scanned;
+        return index;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int swar(BytesCounter processed) {
+        final int index = ByteSearch.indexOf(bytes, DELIMITER);
+        processed.bytes += scanned;
+        return index;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public int vector(BytesCounter processed) {
+        final int index = VectorArrays.indexOf(bytes, DELIMITER);
+        processed.bytes += scanned;
+        return index;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ByteSearchBenchmark.class);
+    }
+
+}
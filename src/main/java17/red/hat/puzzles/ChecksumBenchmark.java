@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * Checksum throughput over the fill buffers, heap and direct, starting from the {@link MisalignedFillBenchmark} offsets:
+ * <ul>
+ * <li>{@link CRC32} and {@link CRC32C}: intrinsic stubs using carry-less multiplication (CLMUL) or the SSE4.2 crc32 instruction</li>
+ * <li>{@link Adler32}: intrinsic stub only on recent JDKs and AVX2 capable x86 CPUs</li>
+ * <li>{@link XxHash64}: pure Java, no intrinsic at all</li>
+ * </ul>
+ * NOTE: it is in the JDK 17+ tree due to the absolute {@code ByteBuffer::slice(int, int)} (JDK 13), not {@link CRC32C} (JDK 9).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class ChecksumBenchmark {
+
+    private static final int MAX_OFFSET = 64;
+
+    @Param({"256", "4096", "32768", "262144", "2097152", "16777216"})
+    private int size;
+    //a subset of the MisalignedFillBenchmark offsets
+    @Param({"0", "1", "7", "8", "63"})
+    private int offset;
+    private byte[] bytes;
+    private ByteBuffer direct;
+    private CRC32 crc32;
+    private CRC32C crc32c;
+    private Adler32 adler32;
+
+    @Setup
+    public void init() {
+        bytes = new byte[MAX_OFFSET + size];
+        Arrays.fill(bytes, (byte) 1);
+        direct = ByteBuffer.allocateDirect(MAX_OFFSET + size).put(bytes).slice(offset, size);
+        crc32 = new CRC32();
+        crc32c = new CRC32C();
+        adler32 = new Adler32();
+    }
+
+    private long heap(Checksum checksum, BytesCounter processed) {
+        checksum.reset();
+        checksum.update(bytes, offset, size);
+        processed.bytes += size;
+        return checksum.getValue();
+    }
+
+    private long direct(Checksum checksum, BytesCounter processed) {
+        checksum.reset();
+        //update consumes the remaining bytes
+        direct.clear();
+        checksum.update(direct);
+        processed.bytes += size;
+        return checksum.getValue();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long crc32(BytesCounter processed) {
+        return heap(crc32, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long crc32Direct(BytesCounter processed) {
+        return direct(crc32, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long crc32c(BytesCounter processed) {
+        return heap(crc32c, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long crc32cDirect(BytesCounter processed) {
+        return direct(crc32c, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long adler32(BytesCounter processed) {
+        return heap(adler32, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long adler32Direct(BytesCounter processed) {
+        return direct(adler32, processed);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long xxHash64(BytesCounter processed) {
+        final long hash = XxHash64.hash(bytes, offset, size, 0);
+        processed.bytes += size;
+        return hash;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long xxHash64Direct(BytesCounter processed) {
+        direct.clear();
+        final long hash = XxHash64.hash(direct, 0);
+        processed.bytes += size;
+        return hash;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ChecksumBenchmark.class);
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import jdk.internal.vm.annotation.Contended;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * False sharing between threads incrementing their own counter:
+ * <ul>
+ * <li>{@code adjacent}: 2 {@code long} fields next to each other, ie on the same cache line</li>
+ * <li>{@code padded}: the same fields split by 15 {@code long}s of padding, inherited to keep their order</li>
+ * <li>{@code contended}: the same fields annotated with {@link Contended}, ie padded by the JVM</li>
+ * <li>{@code stridedSlots}: one {@code long[]} slot per thread, {@code stride} slots apart</li>
+ * </ul>
+ * The first 3 are {@code @Group}s of 2 threads, each with its own counters, hence running them with more threads
+ * means more (independent) groups; {@code stridedSlots} shares the array among all the threads.
+ * The padding is 128 bytes, because the adjacent cache line prefetcher of Intel CPUs makes pairs of lines behave as one.
+ * <p>
+ * NOTE: it is JDK 17+ only due to {@link Contended}: it needs {@code --add-exports java.base/jdk.internal.vm.annotation=ALL-UNNAMED}
+ * to compile and {@code -XX:-RestrictContended} to be honored out of the JDK.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xmx2g", "-XX:-RestrictContended"})
+public class FalseSharingBenchmark {
+
+    private static final int MAX_THREADS = 64;
+
+    @State(Scope.Group)
+    public static class AdjacentCounters {
+
+        long a;
+        long b;
+    }
+
+    public static class PaddedCounterA {
+
+        long a;
+    }
+
+    public static class PaddedCounterAPadding extends PaddedCounterA {
+
+        long p01;
+        long p02;
+        long p03;
+        long p04;
+        long p05;
+        long p06;
+        long p07;
+        long p08;
+        long p09;
+        long p10;
+        long p11;
+        long p12;
+        long p13;
+        long p14;
+        long p15;
+    }
+
+    //the fields of a super class are laid out before the ones of its sub classes
+    @State(Scope.Group)
+    public static class PaddedCounters extends PaddedCounterAPadding {
+
+        long b;
+    }
+
+    @State(Scope.Group)
+    public static class ContendedCounters {
+
+        @Contended
+        long a;
+        @Contended
+        long b;
+    }
+
+    @State(Scope.Benchmark)
+    public static class StridedSlots {
+
+        //in longs: 1 is adjacent, 8 is a cache line apart and 16 a pair of cache lines apart
+        @Param({"1", "8", "16"})
+        int stride;
+        long[] slots;
+        final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void init() {
+            slots = new long[MAX_THREADS * stride];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Slot {
+
+        int index;
+
+        @Setup
+        public void init(StridedSlots slots) {
+            //threads past MAX_THREADS share slots
+            index = (slots.threads.getAndIncrement() % MAX_THREADS) * slots.stride;
+        }
+    }
+
+    @Benchmark
+    @Group("adjacent")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long adjacentA(AdjacentCounters counters) {
+        return ++counters.a;
+    }
+
+    @Benchmark
+    @Group("adjacent")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long adjacentB(AdjacentCounters counters) {
+        return ++counters.b;
+    }
+
+    @Benchmark
+    @Group("padded")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long paddedA(PaddedCounters counters) {
+        return ++counters.a;
+    }
+
+    @Benchmark
+    @Group("padded")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long paddedB(PaddedCounters counters) {
+        return ++counters.b;
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long contendedA(ContendedCounters counters) {
+        return ++counters.a;
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long contendedB(ContendedCounters counters) {
+        return ++counters.b;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long stridedSlots(StridedSlots slots, Slot slot) {
+        return ++slots.slots[slot.index];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{2, 4, 8}) {
+            ArrayFillBenchmark.runBenchmark(FalseSharingBenchmark.class, threads);
+        }
+    }
+
+}
@@ -0,0 +1,520 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Multi-byte reads and writes out of the {@code bytes} fixture, in both byte orders:
+ * <ul>
+ * <li>heap and direct {@link ByteBuffer}s: absolute accessors, bounds checked</li>
+ * <li>byte array view {@link VarHandle}s: bounds checked, they need to be constants (ie static final) to be fast</li>
+ * <li>{@link Unsafe} native order accessors plus {@code reverseBytes} (a single bswap) when the order isn't native</li>
+ * <li>shift-and-or assembly of single bytes: recent JDKs merge the byte stores into a wide one (JDK-8318446), not the loads</li>
+ * </ul>
+ * The byte order checks are loop invariant: C2 is supposed to unswitch the loops on them.
+ * <p>
+ * NOTE: it is in the JDK 17+ tree due to the absolute bulk {@code ByteBuffer::put(int, byte[])} (JDK 16).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrimitiveViewBenchmark {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    @Param({"4096", "32768", "2097152"})
+    private int size;
+    @Param({"LITTLE_ENDIAN", "BIG_ENDIAN"})
+    private String order;
+    private byte[] bytes;
+    private ByteBuffer heapBuffer;
+    private ByteBuffer directBuffer;
+    private boolean bigEndian;
+    //the Unsafe accessors use the native order
+    private boolean swap;
+
+    @Setup
+    public void init() {
+        final ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN.toString().equals(order) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        heapBuffer = ByteBuffer.wrap(bytes).order(byteOrder);
+        directBuffer = ByteBuffer.allocateDirect(size).order(byteOrder);
+        directBuffer.put(0, bytes);
+        bigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+        swap = byteOrder != ByteOrder.nativeOrder();
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long heapBufferReadLong(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            sum += heapBuffer.getLong(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long directBufferReadLong(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            sum += directBuffer.getLong(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long varHandleReadLong(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            sum += bigEndian ? (long) LONG_BE.get(bytes, i) : (long) LONG_LE.get(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long unsafeReadLong(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            final long value = UNSAFE.getLong(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            sum += swap ? Long.reverseBytes(value) : value;
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long shiftsReadLong(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            sum += bigEndian ? getLongBE(bytes, i) : getLongLE(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer heapBufferWriteLong(BytesCounter processed) {
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            heapBuffer.putLong(i, (long) i);
+        }
+        processed.bytes += size;
+        return heapBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer directBufferWriteLong(BytesCounter processed) {
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            directBuffer.putLong(i, (long) i);
+        }
+        processed.bytes += size;
+        return directBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] varHandleWriteLong(BytesCounter processed) {
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            if (bigEndian) {
+                LONG_BE.set(bytes, i, (long) i);
+            } else {
+                LONG_LE.set(bytes, i, (long) i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] unsafeWriteLong(BytesCounter processed) {
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            UNSAFE.putLong(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i, swap ? Long.reverseBytes((long) i) : (long) i);
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] shiftsWriteLong(BytesCounter processed) {
+        for (int i = 0; i <= size - Long.BYTES; i += Long.BYTES) {
+            if (bigEndian) {
+                putLongBE(bytes, i, (long) i);
+            } else {
+                putLongLE(bytes, i, (long) i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long heapBufferReadInt(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            sum += heapBuffer.getInt(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long directBufferReadInt(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            sum += directBuffer.getInt(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long varHandleReadInt(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            sum += bigEndian ? (int) INT_BE.get(bytes, i) : (int) INT_LE.get(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long unsafeReadInt(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            final int value = UNSAFE.getInt(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            sum += swap ? Integer.reverseBytes(value) : value;
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long shiftsReadInt(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            sum += bigEndian ? getIntBE(bytes, i) : getIntLE(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer heapBufferWriteInt(BytesCounter processed) {
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            heapBuffer.putInt(i, i);
+        }
+        processed.bytes += size;
+        return heapBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer directBufferWriteInt(BytesCounter processed) {
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            directBuffer.putInt(i, i);
+        }
+        processed.bytes += size;
+        return directBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] varHandleWriteInt(BytesCounter processed) {
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            if (bigEndian) {
+                INT_BE.set(bytes, i, i);
+            } else {
+                INT_LE.set(bytes, i, i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] unsafeWriteInt(BytesCounter processed) {
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            UNSAFE.putInt(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i, swap ? Integer.reverseBytes(i) : i);
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] shiftsWriteInt(BytesCounter processed) {
+        for (int i = 0; i <= size - Integer.BYTES; i += Integer.BYTES) {
+            if (bigEndian) {
+                putIntBE(bytes, i, i);
+            } else {
+                putIntLE(bytes, i, i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long heapBufferReadShort(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            sum += heapBuffer.getShort(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long directBufferReadShort(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            sum += directBuffer.getShort(i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long varHandleReadShort(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            sum += bigEndian ? (short) SHORT_BE.get(bytes, i) : (short) SHORT_LE.get(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long unsafeReadShort(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            final short value = UNSAFE.getShort(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i);
+            sum += swap ? Short.reverseBytes(value) : value;
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long shiftsReadShort(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            sum += bigEndian ? getShortBE(bytes, i) : getShortLE(bytes, i);
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer heapBufferWriteShort(BytesCounter processed) {
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            heapBuffer.putShort(i, (short) i);
+        }
+        processed.bytes += size;
+        return heapBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public ByteBuffer directBufferWriteShort(BytesCounter processed) {
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            directBuffer.putShort(i, (short) i);
+        }
+        processed.bytes += size;
+        return directBuffer;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] varHandleWriteShort(BytesCounter processed) {
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            if (bigEndian) {
+                SHORT_BE.set(bytes, i, (short) i);
+            } else {
+                SHORT_LE.set(bytes, i, (short) i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] unsafeWriteShort(BytesCounter processed) {
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            UNSAFE.putShort(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET + i, swap ? Short.reverseBytes((short) i) : (short) i);
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] shiftsWriteShort(BytesCounter processed) {
+        for (int i = 0; i <= size - Short.BYTES; i += Short.BYTES) {
+            if (bigEndian) {
+                putShortBE(bytes, i, (short) i);
+            } else {
+                putShortLE(bytes, i, (short) i);
+            }
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    private static long getLongLE(byte[] bytes, int i) {
+        return (bytes[i] & 0xFFL)
+                | (bytes[i + 1] & 0xFFL) << 8
+                | (bytes[i + 2] & 0xFFL) << 16
+                | (bytes[i + 3] & 0xFFL) << 24
+                | (bytes[i + 4] & 0xFFL) << 32
+                | (bytes[i + 5] & 0xFFL) << 40
+                | (bytes[i + 6] & 0xFFL) << 48
+                | (bytes[i + 7] & 0xFFL) << 56;
+    }
+
+    private static long getLongBE(byte[] bytes, int i) {
+        return (bytes[i] & 0xFFL) << 56
+                | (bytes[i + 1] & 0xFFL) << 48
+                | (bytes[i + 2] & 0xFFL) << 40
+                | (bytes[i + 3] & 0xFFL) << 32
+                | (bytes[i + 4] & 0xFFL) << 24
+                | (bytes[i + 5] & 0xFFL) << 16
+                | (bytes[i + 6] & 0xFFL) << 8
+                | (bytes[i + 7] & 0xFFL);
+    }
+
+    private static int getIntLE(byte[] bytes, int i) {
+        return (bytes[i] & 0xFF)
+                | (bytes[i + 1] & 0xFF) << 8
+                | (bytes[i + 2] & 0xFF) << 16
+                | (bytes[i + 3] & 0xFF) << 24;
+    }
+
+    private static int getIntBE(byte[] bytes, int i) {
+        return (bytes[i] & 0xFF) << 24
+                | (bytes[i + 1] & 0xFF) << 16
+                | (bytes[i + 2] & 0xFF) << 8
+                | (bytes[i + 3] & 0xFF);
+    }
+
+    private static short getShortLE(byte[] bytes, int i) {
+        return (short) ((bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8);
+    }
+
+    private static short getShortBE(byte[] bytes, int i) {
+        return (short) ((bytes[i] & 0xFF) << 8 | (bytes[i + 1] & 0xFF));
+    }
+
+    private static void putLongLE(byte[] bytes, int i, long value) {
+        bytes[i] = (byte) value;
+        bytes[i + 1] = (byte) (value >>> 8);
+        bytes[i + 2] = (byte) (value >>> 16);
+        bytes[i + 3] = (byte) (value >>> 24);
+        bytes[i + 4] = (byte) (value >>> 32);
+        bytes[i + 5] = (byte) (value >>> 40);
+        bytes[i + 6] = (byte) (value >>> 48);
+        bytes[i + 7] = (byte) (value >>> 56);
+    }
+
+    private static void putLongBE(byte[] bytes, int i, long value) {
+        bytes[i] = (byte) (value >>> 56);
+        bytes[i + 1] = (byte) (value >>> 48);
+        bytes[i + 2] = (byte) (value >>> 40);
+        bytes[i + 3] = (byte) (value >>> 32);
+        bytes[i + 4] = (byte) (value >>> 24);
+        bytes[i + 5] = (byte) (value >>> 16);
+        bytes[i + 6] = (byte) (value >>> 8);
+        bytes[i + 7] = (byte) value;
+    }
+
+    private static void putIntLE(byte[] bytes, int i, int value) {
+        bytes[i] = (byte) value;
+        bytes[i + 1] = (byte) (value >>> 8);
+        bytes[i + 2] = (byte) (value >>> 16);
+        bytes[i + 3] = (byte) (value >>> 24);
+    }
+
+    private static void putIntBE(byte[] bytes, int i, int value) {
+        bytes[i] = (byte) (value >>> 24);
+        bytes[i + 1] = (byte) (value >>> 16);
+        bytes[i + 2] = (byte) (value >>> 8);
+        bytes[i + 3] = (byte) value;
+    }
+
+    private static void putShortLE(byte[] bytes, int i, short value) {
+        bytes[i] = (byte) value;
+        bytes[i + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putShortBE(byte[] bytes, int i, short value) {
+        bytes[i] = (byte) (value >>> 8);
+        bytes[i + 1] = (byte) value;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(PrimitiveViewBenchmark.class);
+    }
+
+}
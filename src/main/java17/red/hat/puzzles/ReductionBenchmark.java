@@ -0,0 +1,301 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Sum, min, max and count-matching reductions over the {@link ArrayFillBenchmark} {@code longBytes} fixture:
+ * a plain loop, a loop unrolled by hand on 4 independent accumulators, {@code LongStream} (serial and parallel,
+ * on the common pool) and {@link VectorArrays}.
+ * <p>
+ * The plain loops are a single dependency chain (unless C2 vectorizes the reduction), the unrolled ones
+ * let the CPU overlap 4 chains, while the vector ones keep a chain per lane: once the array doesn't fit
+ * the caches anymore they all end up bound by what a single core can pull from memory, and only the parallel
+ * streams can go further (paying their fork/join overhead on the small sizes).
+ * <p>
+ * NOTE: the values are random bytes, hence {@code count} matches about 1 element out of 256.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+public class ReductionBenchmark {
+
+    @Param({"256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    private long[] longBytes;
+    private long key;
+
+    @Setup
+    public void init() {
+        longBytes = new long[size / Long.BYTES];
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < longBytes.length; i++) {
+            longBytes[i] = random.nextInt(256);
+        }
+        key = 42;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sumLoop(BytesCounter processed) {
+        long result = 0;
+        for (int i = 0; i < longBytes.length; i++) {
+            result += longBytes[i];
+        }
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sumUnrolled(BytesCounter processed) {
+        long r0 = 0, r1 = 0, r2 = 0, r3 = 0;
+        final int bound = longBytes.length & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            r0 += longBytes[i];
+            r1 += longBytes[i + 1];
+            r2 += longBytes[i + 2];
+            r3 += longBytes[i + 3];
+        }
+        for (; i < longBytes.length; i++) {
+            r0 += longBytes[i];
+        }
+        final long result = r0 + r1 + r2 + r3;
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sumStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).sum();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sumParallelStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).parallel().sum();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sumVector(BytesCounter processed) {
+        final long result = VectorArrays.sum(longBytes);
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long minLoop(BytesCounter processed) {
+        long result = Long.MAX_VALUE;
+        for (int i = 0; i < longBytes.length; i++) {
+            result = Math.min(result, longBytes[i]);
+        }
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long minUnrolled(BytesCounter processed) {
+        long r0 = Long.MAX_VALUE, r1 = Long.MAX_VALUE, r2 = Long.MAX_VALUE, r3 = Long.MAX_VALUE;
+        final int bound = longBytes.length & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            r0 = Math.min(r0, longBytes[i]);
+            r1 = Math.min(r1, longBytes[i + 1]);
+            r2 = Math.min(r2, longBytes[i + 2]);
+            r3 = Math.min(r3, longBytes[i + 3]);
+        }
+        for (; i < longBytes.length; i++) {
+            r0 = Math.min(r0, longBytes[i]);
+        }
+        final long result = Math.min(Math.min(r0, r1), Math.min(r2, r3));
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long minStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).min().getAsLong();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long minParallelStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).parallel().min().getAsLong();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long minVector(BytesCounter processed) {
+        final long result = VectorArrays.min(longBytes);
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long maxLoop(BytesCounter processed) {
+        long result = Long.MIN_VALUE;
+        for (int i = 0; i < longBytes.length; i++) {
+            result = Math.max(result, longBytes[i]);
+        }
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long maxUnrolled(BytesCounter processed) {
+        long r0 = Long.MIN_VALUE, r1 = Long.MIN_VALUE, r2 = Long.MIN_VALUE, r3 = Long.MIN_VALUE;
+        final int bound = longBytes.length & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            r0 = Math.max(r0, longBytes[i]);
+            r1 = Math.max(r1, longBytes[i + 1]);
+            r2 = Math.max(r2, longBytes[i + 2]);
+            r3 = Math.max(r3, longBytes[i + 3]);
+        }
+        for (; i < longBytes.length; i++) {
+            r0 = Math.max(r0, longBytes[i]);
+        }
+        final long result = Math.max(Math.max(r0, r1), Math.max(r2, r3));
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long maxStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).max().getAsLong();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long maxParallelStream(BytesCounter processed) {
+        final long result = LongStream.of(longBytes).parallel().max().getAsLong();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long maxVector(BytesCounter processed) {
+        final long result = VectorArrays.max(longBytes);
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long countLoop(BytesCounter processed) {
+        long result = 0;
+        for (int i = 0; i < longBytes.length; i++) {
+            if (longBytes[i] == key) {
+                result++;
+            }
+        }
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long countUnrolled(BytesCounter processed) {
+        long r0 = 0, r1 = 0, r2 = 0, r3 = 0;
+        final int bound = longBytes.length & ~3;
+        int i = 0;
+        for (; i < bound; i += 4) {
+            if (longBytes[i] == key) {
+                r0++;
+            }
+            if (longBytes[i + 1] == key) {
+                r1++;
+            }
+            if (longBytes[i + 2] == key) {
+                r2++;
+            }
+            if (longBytes[i + 3] == key) {
+                r3++;
+            }
+        }
+        for (; i < longBytes.length; i++) {
+            if (longBytes[i] == key) {
+                r0++;
+            }
+        }
+        final long result = r0 + r1 + r2 + r3;
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long countStream(BytesCounter processed) {
+        final long key = this.key;
+        final long result = LongStream.of(longBytes).filter(l -> l == key).count();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long countParallelStream(BytesCounter processed) {
+        final long key = this.key;
+        final long result = LongStream.of(longBytes).parallel().filter(l -> l == key).count();
+        processed.bytes += size;
+        return result;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long countVector(BytesCounter processed) {
+        final long result = VectorArrays.count(longBytes, key);
+        processed.bytes += size;
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(ReductionBenchmark.class);
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ArrayFillBenchmark#handrolledWide} SWAR fills without {@code Unsafe}: the byte array view
+ * {@link VarHandle} is bounds checked and it allows unaligned accesses, but it compiles down to plain
+ * 8 bytes stores.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class VarHandleFillBenchmark {
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    private byte[] bytes;
+    private byte b;
+    private long wideB;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        b = 1;
+        wideB = (b & 0xFFL) * 0x0101010101010101L;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolled(BytesCounter filled) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = b;
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledReverse(BytesCounter filled) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            bytes[i] = b;
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledWide(BytesCounter filled) {
+        final int wideLength = bytes.length & ~(Long.BYTES - 1);
+        for (int i = 0; i < wideLength; i += Long.BYTES) {
+            LONG_VIEW.set(bytes, i, wideB);
+        }
+        for (int i = wideLength; i < bytes.length; i++) {
+            bytes[i] = b;
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolledWideReverse(BytesCounter filled) {
+        final int wideLength = bytes.length & ~(Long.BYTES - 1);
+        for (int i = bytes.length - 1; i >= wideLength; i--) {
+            bytes[i] = b;
+        }
+        for (int i = wideLength - Long.BYTES; i >= 0; i -= Long.BYTES) {
+            LONG_VIEW.set(bytes, i, wideB);
+        }
+        filled.bytes += size;
+        return bytes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(VarHandleFillBenchmark.class);
+    }
+
+}
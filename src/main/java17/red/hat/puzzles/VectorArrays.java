@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Explicit SIMD versions of common array operations, written with {@code jdk.incubator.vector}:
+ * a vectorized main loop on the preferred species followed by a scalar tail.
+ * <p>
+ * NOTE: it needs {@code --add-modules jdk.incubator.vector} at compile and run time.
+ */
+public final class VectorArrays {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private VectorArrays() {
+    }
+
+    public static void fill(byte[] bytes, byte b) {
+        final ByteVector v = ByteVector.broadcast(BYTES, b);
+        final int bound = BYTES.loopBound(bytes.length);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            v.intoArray(bytes, i);
+        }
+        for (; i < bytes.length; i++) {
+            bytes[i] = b;
+        }
+    }
+
+    public static void fill(long[] longs, long l) {
+        final LongVector v = LongVector.broadcast(LONGS, l);
+        final int bound = LONGS.loopBound(longs.length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            v.intoArray(longs, i);
+        }
+        for (; i < longs.length; i++) {
+            longs[i] = l;
+        }
+    }
+
+    /**
+     * Fills {@code bytes} repeating the 8 bytes of {@code pattern} in little endian order.
+     */
+    public static void fill(byte[] bytes, long pattern) {
+        //the reinterpretation is little endian regardless of the platform
+        final ByteVector v = LongVector.broadcast(LONGS, pattern).reinterpretAsBytes();
+        final int bound = v.species().loopBound(bytes.length);
+        int i = 0;
+        for (; i < bound; i += v.length()) {
+            v.intoArray(bytes, i);
+        }
+        for (; i < bytes.length; i++) {
+            bytes[i] = (byte) (pattern >>> ((i & 7) << 3));
+        }
+    }
+
+    public static boolean equals(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        final int bound = BYTES.loopBound(a.length);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            final ByteVector va = ByteVector.fromArray(BYTES, a, i);
+            final ByteVector vb = ByteVector.fromArray(BYTES, b, i);
+            if (va.compare(VectorOperators.NE, vb).anyTrue()) {
+                return false;
+            }
+        }
+        for (; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index of the first {@code b} in {@code bytes} or -1 if not found
+     */
+    public static int indexOf(byte[] bytes, byte b) {
+        final int bound = BYTES.loopBound(bytes.length);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            final int lane = ByteVector.fromArray(BYTES, bytes, i).eq(b).firstTrue();
+            if (lane < BYTES.length()) {
+                return i + lane;
+            }
+        }
+        for (; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static long sum(long[] longs) {
+        //lane-wise partial sums: a single cross lane reduction at the end
+        LongVector acc = LongVector.zero(LONGS);
+        final int bound = LONGS.loopBound(longs.length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.add(LongVector.fromArray(LONGS, longs, i));
+        }
+        long sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < longs.length; i++) {
+            sum += longs[i];
+        }
+        return sum;
+    }
+
+    public static long min(long[] longs) {
+        LongVector acc = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        final int bound = LONGS.loopBound(longs.length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.min(LongVector.fromArray(LONGS, longs, i));
+        }
+        long min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < longs.length; i++) {
+            min = Math.min(min, longs[i]);
+        }
+        return min;
+    }
+
+    public static long max(long[] longs) {
+        LongVector acc = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        final int bound = LONGS.loopBound(longs.length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.max(LongVector.fromArray(LONGS, longs, i));
+        }
+        long max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < longs.length; i++) {
+            max = Math.max(max, longs[i]);
+        }
+        return max;
+    }
+
+    /**
+     * @return how many elements of {@code longs} are equal to {@code l}
+     */
+    public static long count(long[] longs, long l) {
+        //lane-wise counters incremented under the comparison mask, instead of a trueCount per iteration
+        final LongVector ones = LongVector.broadcast(LONGS, 1);
+        LongVector acc = LongVector.zero(LONGS);
+        final int bound = LONGS.loopBound(longs.length);
+        int i = 0;
+        for (; i < bound; i += LONGS.length()) {
+            acc = acc.add(ones, LongVector.fromArray(LONGS, longs, i).eq(l));
+        }
+        long count = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < longs.length; i++) {
+            if (longs[i] == l) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
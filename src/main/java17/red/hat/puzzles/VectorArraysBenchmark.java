@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link VectorArrays} explicit SIMD against what C2 already emits for the {@link ArrayFillBenchmark} variants:
+ * the intrinsic stub ({@code fill}), SuperWord ({@code fillLong}, {@code handrolled}) or nothing at all
+ * ({@code patternFill}).
+ * <p>
+ * The plain {@code long} {@code sum} loop isn't necessarily scalar: C2 can vectorize simple {@code long} add reductions
+ * too (eg on AVX2), depending on the JDK version and the target. The gap against {@code vectorSum} is expected to
+ * change accordingly: check with {@code -prof perfasm} what it emits on your hardware before reading anything into it.
+ * <p>
+ * NOTE: play with -XX:UseAVX=N to change the preferred species of the Vector API and the SuperWord vector size.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = {"-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+public class VectorArraysBenchmark {
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    private byte[] bytes;
+    private byte[] sameBytes;
+    private long[] longBytes;
+    private byte b;
+    private long pattern;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        sameBytes = new byte[size];
+        longBytes = new long[size / Long.BYTES];
+        b = 1;
+        pattern = 0x0807060504030201L;
+        //equals need to scan everything to be fair
+        Arrays.fill(bytes, b);
+        Arrays.fill(sameBytes, b);
+        Arrays.fill(longBytes, b);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] fill(BytesCounter processed) {
+        Arrays.fill(bytes, b);
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] vectorFill(BytesCounter processed) {
+        VectorArrays.fill(bytes, b);
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] fillLong(BytesCounter processed) {
+        Arrays.fill(longBytes, b);
+        processed.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long[] vectorFillLong(BytesCounter processed) {
+        VectorArrays.fill(longBytes, b);
+        processed.bytes += size;
+        return longBytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] handrolled(BytesCounter processed) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = b;
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] patternFill(BytesCounter processed) {
+        //the variable shift isn't something SuperWord can vectorize
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (pattern >>> ((i & 7) << 3));
+        }
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] vectorPatternFill(BytesCounter processed) {
+        VectorArrays.fill(bytes, pattern);
+        processed.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean equals(BytesCounter processed) {
+        //ArraysSupport::vectorizedMismatch intrinsic
+        final boolean equals = Arrays.equals(bytes, sameBytes);
+        processed.bytes += size;
+        return equals;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public boolean vectorEquals(BytesCounter processed) {
+        final boolean equals = VectorArrays.equals(bytes, sameBytes);
+        processed.bytes += size;
+        return equals;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long sum(BytesCounter processed) {
+        long sum = 0;
+        for (int i = 0; i < longBytes.length; i++) {
+            sum += longBytes[i];
+        }
+        processed.bytes += size;
+        return sum;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long vectorSum(BytesCounter processed) {
+        final long sum = VectorArrays.sum(longBytes);
+        processed.bytes += size;
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(VectorArraysBenchmark.class);
+    }
+
+}
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.RunnerException;
+import sun.misc.Unsafe;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static red.hat.puzzles.ArrayFillBenchmark.UNSAFE;
+
+/**
+ * Does moving off {@link Unsafe} to the Foreign Function & Memory API (final in JDK 22) cost any fill throughput?
+ * <p>
+ * {@link MemorySegment#fill} ends up into the same {@code Unsafe::setMemory} of {@link ArrayFillBenchmark#maybeMemset},
+ * but after the bounds, liveness and thread confinement checks: they are supposed to be hoisted or folded by C2
+ * as long as the segments are constants for it (ie the benchmark methods are compiled alone).
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(jvmArgsAppend = "-Xmx2g")
+public class MemorySegmentFillBenchmark {
+
+    @Param({"16", "256", "4096", "32768", "262144", "2097152", "16777216", "67108864", "268435456"})
+    private int size;
+    private byte[] bytes;
+    private long address;
+    private Arena arena;
+    private MemorySegment heapSegment;
+    private MemorySegment nativeSegment;
+    private byte b;
+    private long wideB;
+
+    @Setup
+    public void init() {
+        bytes = new byte[size];
+        address = UNSAFE.allocateMemory(size);
+        //shared: JMH doesn't guarantee that setup and benchmark run on the same thread
+        arena = Arena.ofShared();
+        heapSegment = MemorySegment.ofArray(bytes);
+        nativeSegment = arena.allocate(size, Long.BYTES);
+        b = 1;
+        wideB = (b & 0xFFL) * 0x0101010101010101L;
+    }
+
+    @TearDown
+    public void release() {
+        arena.close();
+        UNSAFE.freeMemory(address);
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] fill(BytesCounter filled) {
+        Arrays.fill(bytes, b);
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public byte[] maybeMemset(BytesCounter filled) {
+        UNSAFE.setMemory(bytes, Unsafe.ARRAY_BYTE_BASE_OFFSET, size, b);
+        filled.bytes += size;
+        return bytes;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public MemorySegment heapSegmentFill(BytesCounter filled) {
+        heapSegment.fill(b);
+        filled.bytes += size;
+        return heapSegment;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapMemset(BytesCounter filled) {
+        UNSAFE.setMemory(address, size, b);
+        filled.bytes += size;
+        return address;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public MemorySegment nativeSegmentFill(BytesCounter filled) {
+        nativeSegment.fill(b);
+        filled.bytes += size;
+        return nativeSegment;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public long offHeapPutLong(BytesCounter filled) {
+        for (long offset = 0; offset < size; offset += Long.BYTES) {
+            UNSAFE.putLong(address + offset, wideB);
+        }
+        filled.bytes += size;
+        return address;
+    }
+
+    @Benchmark
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    public MemorySegment nativeSegmentSetLong(BytesCounter filled) {
+        //long induction variable loops became counted loops with JDK-8223051, to help this very use case
+        for (long offset = 0; offset < size; offset += Long.BYTES) {
+            nativeSegment.set(ValueLayout.JAVA_LONG_UNALIGNED, offset, wideB);
+        }
+        filled.bytes += size;
+        return nativeSegment;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ArrayFillBenchmark.runBenchmark(MemorySegmentFillBenchmark.class);
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.hat.puzzles;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongBitmapTest {
+
+    //not a multiple of 64: the last word has padding bits
+    private static final int SIZE = 100;
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void setSizeIsRejected() {
+        new LongBitmap(SIZE).set(SIZE);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void setNegativeIsRejected() {
+        new LongBitmap(SIZE).set(-1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getSizeIsRejected() {
+        new LongBitmap(SIZE).get(SIZE);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void clearSizeIsRejected() {
+        new LongBitmap(SIZE).clear(SIZE);
+    }
+
+    @Test
+    public void setLastBit() {
+        final LongBitmap bitmap = new LongBitmap(SIZE);
+        bitmap.set(SIZE - 1);
+        Assert.assertTrue(bitmap.get(SIZE - 1));
+        Assert.assertEquals(1, bitmap.cardinality());
+        Assert.assertEquals(SIZE - 1, bitmap.nextSetBit(0));
+    }
+}